@@ -51,8 +51,8 @@ public class BotStartupRegistrar {
             // Register admin bot first
             registerAdminBot();
 
-            // Then register tenant bots in batches
-            registerActiveTenantBots();
+            // Then register tenant bots in batches, swapping the registry snapshot once at the end
+            botRegistry.batchUpdates(this::registerActiveTenantBots);
 
             log.info("Bot registration process completed successfully");
         } catch (Exception e) {
@@ -2,12 +2,16 @@ package ua.vbielskyi.bmf.api.telegram.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import ua.vbielskyi.bmf.core.telegram.handler.BotHandler;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
+import ua.vbielskyi.bmf.core.telegram.service.TenantAdmissionControl;
+import ua.vbielskyi.bmf.core.telegram.service.UpdateDeduplicator;
+import ua.vbielskyi.bmf.core.telegram.service.UpdateDispatcher;
 import ua.vbielskyi.bmf.core.telegram.service.impl.CachedBotRegistry;
 
 import java.util.UUID;
@@ -22,6 +26,9 @@ import java.util.UUID;
 public class TelegramWebhookController {
 
     private final CachedBotRegistry botRegistry;
+    private final UpdateDispatcher updateDispatcher;
+    private final UpdateDeduplicator updateDeduplicator;
+    private final TenantAdmissionControl admissionControl;
 
     /**
      * Handle updates for the admin bot
@@ -30,20 +37,28 @@ public class TelegramWebhookController {
     public ResponseEntity<BotApiMethod<?>> handleAdminUpdate(@RequestBody Update update) {
         log.debug("Received update for admin bot: {}", update.getUpdateId());
 
-            CachedBotRegistry.BotConfig config = botRegistry.getBotConfig(BotType.ADMIN, null);
+        CachedBotRegistry.BotConfig config = botRegistry.getBotConfig(BotType.ADMIN, null);
         if (config == null || !config.isActive()) {
             log.error("Admin bot not registered or inactive");
             return ResponseEntity.notFound().build();
         }
 
-        BotHandler handler = botRegistry.findHandler(BotType.ADMIN, null);
+        BotHandler handler = botRegistry.findHandler(config);
         if (handler == null) {
             log.error("No handler found for admin bot");
             return ResponseEntity.notFound().build();
         }
 
-        BotApiMethod<?> response = handler.handleUpdate(update, null);
-        return ResponseEntity.ok(response);
+        if (!updateDeduplicator.claim(BotType.ADMIN, null, update.getUpdateId())) {
+            return ResponseEntity.ok().build();
+        }
+
+        TenantAdmissionControl.Permit permit = admissionControl.tryAcquire(null, update);
+        if (updateDispatcher.isAsyncEnabled()) {
+            return acknowledge(handler, update, BotType.ADMIN, null, permit);
+        }
+
+        return ResponseEntity.ok(handleNow(handler, update, BotType.ADMIN, null, permit));
     }
 
     /**
@@ -67,13 +82,61 @@ public class TelegramWebhookController {
             return ResponseEntity.ok(null); // Silently acknowledge but don't process
         }
 
-        BotHandler handler = botRegistry.findHandler(BotType.TENANT, tenantId);
+        BotHandler handler = botRegistry.findHandler(config);
         if (handler == null) {
             log.error("No handler found for tenant: {}", tenantId);
             return ResponseEntity.notFound().build();
         }
 
-        BotApiMethod<?> response = handler.handleUpdate(update, tenantId);
-        return ResponseEntity.ok(response);
+        if (!updateDeduplicator.claim(BotType.TENANT, tenantId, update.getUpdateId())) {
+            return ResponseEntity.ok().build();
+        }
+
+        TenantAdmissionControl.Permit permit = admissionControl.tryAcquire(tenantId, update);
+        if (permit == null) {
+            updateDeduplicator.release(BotType.TENANT, tenantId, update.getUpdateId());
+            if (admissionControl.classify(update) == TenantAdmissionControl.Priority.LOW) {
+                // Not worth a redelivery
+                return ResponseEntity.ok().build();
+            }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        if (updateDispatcher.isAsyncEnabled()) {
+            return acknowledge(handler, update, BotType.TENANT, tenantId, permit);
+        }
+
+        return ResponseEntity.ok(handleNow(handler, update, BotType.TENANT, tenantId, permit));
+    }
+
+    /**
+     * Handle an update on the request thread. A failed update is released so Telegram's redelivery is processed.
+     */
+    private BotApiMethod<?> handleNow(BotHandler handler, Update update, BotType botType, UUID tenantId,
+                                      TenantAdmissionControl.Permit permit) {
+        boolean success = false;
+        try {
+            BotApiMethod<?> response = handler.handleUpdate(update, tenantId);
+            success = true;
+            return response;
+        } catch (RuntimeException e) {
+            updateDeduplicator.release(botType, tenantId, update.getUpdateId());
+            throw e;
+        } finally {
+            permit.release(success);
+        }
+    }
+
+    /**
+     * Queue an update and acknowledge it, or ask Telegram to redeliver it if it could not be queued
+     */
+    private ResponseEntity<BotApiMethod<?>> acknowledge(BotHandler handler, Update update, BotType botType,
+                                                        UUID tenantId, TenantAdmissionControl.Permit permit) {
+        if (!updateDispatcher.dispatch(handler, update, botType, tenantId, permit)) {
+            permit.release(false);
+            updateDeduplicator.release(botType, tenantId, update.getUpdateId());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
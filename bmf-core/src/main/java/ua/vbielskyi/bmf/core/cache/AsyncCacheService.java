@@ -0,0 +1,158 @@
+package ua.vbielskyi.bmf.core.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link CacheService}. Uses the same key scheme,
+ * codecs and near cache, so values written through either API are visible to the other.
+ * Independent lookups can be started together and joined once.
+ */
+public interface AsyncCacheService {
+
+    // ========== Tenant-specific cache operations ==========
+
+    /**
+     * Get a value from the tenant-specific cache
+     * @param key Cache key
+     * @param type Value type class
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Future of an Optional containing the value if found
+     */
+    <T> CompletableFuture<Optional<T>> get(String key, Class<T> type, UUID tenantId);
+
+    /**
+     * Get several values from the tenant-specific cache in one round trip
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Future of a map of found keys to values; missing keys are absent
+     */
+    <T> CompletableFuture<Map<String, T>> getAll(Collection<String> keys, Class<T> type, UUID tenantId);
+
+    /**
+     * Put a value in the tenant-specific cache with expiration
+     * @param key Cache key
+     * @param value Value to cache
+     * @param expiration Expiration time, non-positive for none
+     * @param timeUnit Time unit for expiration
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Future completed once the value is written
+     */
+    <T> CompletableFuture<Void> put(String key, T value, long expiration, TimeUnit timeUnit, UUID tenantId);
+
+    /**
+     * Put several values in the tenant-specific cache with the same expiration
+     * @param values Map of cache keys to values
+     * @param expiration Expiration time, non-positive for none
+     * @param timeUnit Time unit for expiration
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Future completed once all values are written
+     */
+    <T> CompletableFuture<Void> putAll(Map<String, T> values, long expiration, TimeUnit timeUnit, UUID tenantId);
+
+    /**
+     * Get a value from the tenant-specific cache or compute it if not found.
+     * The supplier runs on a loader thread, never on the Redis I/O thread.
+     * @param key Cache key
+     * @param type Value type class
+     * @param supplier Supplier to compute the value if not found
+     * @param expiration Expiration time, non-positive for none
+     * @param timeUnit Time unit for expiration
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Future of the cached or computed value
+     */
+    <T> CompletableFuture<T> getOrElseCompute(String key, Class<T> type, Supplier<T> supplier,
+                                              long expiration, TimeUnit timeUnit, UUID tenantId);
+
+    /**
+     * Remove a value from the tenant-specific cache
+     * @param key Cache key
+     * @param tenantId Tenant ID
+     * @return Future completed once the value is removed
+     */
+    CompletableFuture<Void> remove(String key, UUID tenantId);
+
+    // ========== General (non-tenant-specific) cache operations ==========
+
+    /**
+     * Get a value from the general cache
+     * @param key Cache key
+     * @param type Value type class
+     * @param <T> Value type
+     * @return Future of an Optional containing the value if found
+     */
+    <T> CompletableFuture<Optional<T>> get(String key, Class<T> type);
+
+    /**
+     * Get several values from the general cache in one round trip
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param <T> Value type
+     * @return Future of a map of found keys to values; missing keys are absent
+     */
+    <T> CompletableFuture<Map<String, T>> getAll(Collection<String> keys, Class<T> type);
+
+    /**
+     * Put a value in the general cache with expiration
+     * @param key Cache key
+     * @param value Value to cache
+     * @param expiration Expiration time, non-positive for none
+     * @param timeUnit Time unit for expiration
+     * @param <T> Value type
+     * @return Future completed once the value is written
+     */
+    <T> CompletableFuture<Void> put(String key, T value, long expiration, TimeUnit timeUnit);
+
+    /**
+     * Put several values in the general cache with the same expiration
+     * @param values Map of cache keys to values
+     * @param expiration Expiration time, non-positive for none
+     * @param timeUnit Time unit for expiration
+     * @param <T> Value type
+     * @return Future completed once all values are written
+     */
+    <T> CompletableFuture<Void> putAll(Map<String, T> values, long expiration, TimeUnit timeUnit);
+
+    /**
+     * Get a value from the general cache or compute it if not found.
+     * The supplier runs on a loader thread, never on the Redis I/O thread.
+     * @param key Cache key
+     * @param type Value type class
+     * @param supplier Supplier to compute the value if not found
+     * @param expiration Expiration time, non-positive for none
+     * @param timeUnit Time unit for expiration
+     * @param <T> Value type
+     * @return Future of the cached or computed value
+     */
+    <T> CompletableFuture<T> getOrElseCompute(String key, Class<T> type, Supplier<T> supplier,
+                                              long expiration, TimeUnit timeUnit);
+
+    /**
+     * Remove a value from the general cache
+     * @param key Cache key
+     * @return Future completed once the value is removed
+     */
+    CompletableFuture<Void> remove(String key);
+
+    // ========== Batch operations ==========
+
+    /**
+     * Execute a mix of tenant-specific and general writes and removals
+     * in a single pipelined round trip
+     * @param operations Callback that queues operations on the batch
+     * @return Future completed once every operation is done
+     */
+    CompletableFuture<Void> executeBatch(Consumer<CacheBatch> operations);
+}
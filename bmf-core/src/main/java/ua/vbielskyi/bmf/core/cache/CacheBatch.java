@@ -0,0 +1,52 @@
+package ua.vbielskyi.bmf.core.cache;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects cache writes and removals that are sent to the cache
+ * in a single pipelined round trip
+ *
+ * @see CacheService#executeBatch(java.util.function.Consumer)
+ * @see AsyncCacheService#executeBatch(java.util.function.Consumer)
+ */
+public interface CacheBatch {
+
+    /**
+     * Queue a put into the tenant-specific cache
+     * @param key Cache key
+     * @param value Value to cache
+     * @param expiration Expiration time
+     * @param timeUnit Time unit for expiration
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return This batch
+     */
+    <T> CacheBatch put(String key, T value, long expiration, TimeUnit timeUnit, UUID tenantId);
+
+    /**
+     * Queue a removal from the tenant-specific cache
+     * @param key Cache key
+     * @param tenantId Tenant ID
+     * @return This batch
+     */
+    CacheBatch remove(String key, UUID tenantId);
+
+    /**
+     * Queue a put into the general cache
+     * @param key Cache key
+     * @param value Value to cache
+     * @param expiration Expiration time
+     * @param timeUnit Time unit for expiration
+     * @param <T> Value type
+     * @return This batch
+     */
+    <T> CacheBatch put(String key, T value, long expiration, TimeUnit timeUnit);
+
+    /**
+     * Queue a removal from the general cache
+     * @param key Cache key
+     * @return This batch
+     */
+    CacheBatch remove(String key);
+}
@@ -1,9 +1,12 @@
 package ua.vbielskyi.bmf.core.cache;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -44,6 +47,26 @@ public interface CacheService {
      */
     <T> Optional<T> get(String key, Class<T> type, UUID tenantId);
 
+    /**
+     * Get several values from the tenant-specific cache in one round trip
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Map of found keys to values; missing keys are absent
+     */
+    <T> Map<String, T> getAll(Collection<String> keys, Class<T> type, UUID tenantId);
+
+    /**
+     * Put several values in the tenant-specific cache in one round trip
+     * @param values Map of cache keys to values
+     * @param expiration Expiration time
+     * @param timeUnit Time unit for expiration
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     */
+    <T> void putAll(Map<String, T> values, long expiration, TimeUnit timeUnit, UUID tenantId);
+
     /**
      * Get a value from the tenant-specific cache or compute it if not present
      * @param key Cache key
@@ -68,6 +91,42 @@ public interface CacheService {
      */
     <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier, long expiration, TimeUnit timeUnit, UUID tenantId);
 
+    /**
+     * Get a value from the tenant-specific cache or compute it, serving stale values while refreshing.
+     * After the soft expiration the cached value is still returned and a background refresh is started;
+     * refreshes begin probabilistically before the soft expiration so they spread out over time.
+     * Keys used with this method must only be read through it.
+     * @param key Cache key
+     * @param type Value type class
+     * @param supplier Supplier to compute value
+     * @param softExpiration Time after which the value is refreshed in the background
+     * @param hardExpiration Time after which the value is evicted
+     * @param timeUnit Time unit for both expirations
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Cached or computed value
+     */
+    <T> T getOrElseComputeWithRefresh(String key, Class<T> type, Supplier<T> supplier,
+                                      long softExpiration, long hardExpiration, TimeUnit timeUnit, UUID tenantId);
+
+    /**
+     * Get a value from the tenant-specific cache or look it up, remembering lookups that found nothing.
+     * A miss is cached as a tombstone for the negative expiration, so repeated requests for an entity
+     * that does not exist do not reach the source. Putting or removing the key clears the tombstone.
+     * @param key Cache key
+     * @param type Value type class
+     * @param supplier Lookup returning an empty Optional if the value does not exist
+     * @param expiration Expiration time of found values
+     * @param negativeExpiration Expiration time of negative results
+     * @param timeUnit Time unit for both expirations
+     * @param tenantId Tenant ID
+     * @param <T> Value type
+     * @return Optional containing the cached or looked up value, empty if it does not exist
+     */
+    <T> Optional<T> getOrElseComputeOptional(String key, Class<T> type, Supplier<Optional<T>> supplier,
+                                             long expiration, long negativeExpiration, TimeUnit timeUnit,
+                                             UUID tenantId);
+
     /**
      * Remove a value from the tenant-specific cache
      * @param key Cache key
@@ -103,6 +162,13 @@ public interface CacheService {
      */
     boolean exists(String key, UUID tenantId);
 
+    /**
+     * Get the approximate cache footprint of a tenant
+     * @param tenantId Tenant ID
+     * @return Bytes, key count and quota evictions for the tenant
+     */
+    CacheUsage getUsage(UUID tenantId);
+
     // ========== General (non-tenant-specific) cache operations ==========
 
     /**
@@ -132,6 +198,24 @@ public interface CacheService {
      */
     <T> Optional<T> get(String key, Class<T> type);
 
+    /**
+     * Get several values from the general cache in one round trip
+     * @param keys Cache keys
+     * @param type Value type class
+     * @param <T> Value type
+     * @return Map of found keys to values; missing keys are absent
+     */
+    <T> Map<String, T> getAll(Collection<String> keys, Class<T> type);
+
+    /**
+     * Put several values in the general cache in one round trip
+     * @param values Map of cache keys to values
+     * @param expiration Expiration time
+     * @param timeUnit Time unit for expiration
+     * @param <T> Value type
+     */
+    <T> void putAll(Map<String, T> values, long expiration, TimeUnit timeUnit);
+
     /**
      * Get a value from the general cache or compute it if not present
      * @param key Cache key
@@ -154,6 +238,37 @@ public interface CacheService {
      */
     <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier, long expiration, TimeUnit timeUnit);
 
+    /**
+     * Get a value from the general cache or compute it, serving stale values while refreshing.
+     * Keys used with this method must only be read through it.
+     * @param key Cache key
+     * @param type Value type class
+     * @param supplier Supplier to compute value
+     * @param softExpiration Time after which the value is refreshed in the background
+     * @param hardExpiration Time after which the value is evicted
+     * @param timeUnit Time unit for both expirations
+     * @param <T> Value type
+     * @return Cached or computed value
+     * @see #getOrElseComputeWithRefresh(String, Class, Supplier, long, long, TimeUnit, UUID)
+     */
+    <T> T getOrElseComputeWithRefresh(String key, Class<T> type, Supplier<T> supplier,
+                                      long softExpiration, long hardExpiration, TimeUnit timeUnit);
+
+    /**
+     * Get a value from the general cache or look it up, remembering lookups that found nothing.
+     * @param key Cache key
+     * @param type Value type class
+     * @param supplier Lookup returning an empty Optional if the value does not exist
+     * @param expiration Expiration time of found values
+     * @param negativeExpiration Expiration time of negative results
+     * @param timeUnit Time unit for both expirations
+     * @param <T> Value type
+     * @return Optional containing the cached or looked up value, empty if it does not exist
+     * @see #getOrElseComputeOptional(String, Class, Supplier, long, long, TimeUnit, UUID)
+     */
+    <T> Optional<T> getOrElseComputeOptional(String key, Class<T> type, Supplier<Optional<T>> supplier,
+                                             long expiration, long negativeExpiration, TimeUnit timeUnit);
+
     /**
      * Remove a value from the general cache
      * @param key Cache key
@@ -183,4 +298,13 @@ public interface CacheService {
      * @return True if key exists, false otherwise
      */
     boolean exists(String key);
+
+    // ========== Batch operations ==========
+
+    /**
+     * Execute a mix of tenant-specific and general writes and removals
+     * in a single pipelined round trip
+     * @param operations Callback that queues operations on the batch
+     */
+    void executeBatch(Consumer<CacheBatch> operations);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ua.vbielskyi.bmf.core.cache;
+
+/**
+ * Approximate cache footprint of a tenant
+ *
+ * @param bytes     Sum of encoded value sizes
+ * @param keys      Number of live keys
+ * @param evictions Keys evicted so far to stay within the tenant quota
+ */
+public record CacheUsage(long bytes, long keys, long evictions) {
+
+    public static final CacheUsage EMPTY = new CacheUsage(0, 0, 0);
+}
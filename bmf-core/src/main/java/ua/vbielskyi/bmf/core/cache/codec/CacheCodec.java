@@ -0,0 +1,45 @@
+package ua.vbielskyi.bmf.core.cache.codec;
+
+import java.io.IOException;
+
+/**
+ * Serialization format for cached values
+ */
+public interface CacheCodec {
+
+    /**
+     * Get the identifier written into the value header
+     *
+     * @return Codec ID between 1 and 63, unique across codecs
+     */
+    byte getId();
+
+    /**
+     * Get the name used to select this codec in configuration
+     *
+     * @return Codec name
+     */
+    String getName();
+
+    /**
+     * Encode a value
+     *
+     * @param value Value to encode
+     * @return Encoded bytes
+     * @throws IOException If the value cannot be serialized
+     */
+    byte[] encode(Object value) throws IOException;
+
+    /**
+     * Decode a value
+     *
+     * @param data   Buffer holding the encoded value
+     * @param offset Offset of the encoded value in the buffer
+     * @param length Length of the encoded value
+     * @param type   Value type class
+     * @param <T>    Value type
+     * @return Decoded value
+     * @throws IOException If the data cannot be deserialized
+     */
+    <T> T decode(byte[] data, int offset, int length, Class<T> type) throws IOException;
+}
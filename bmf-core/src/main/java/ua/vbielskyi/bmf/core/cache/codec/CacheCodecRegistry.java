@@ -0,0 +1,177 @@
+package ua.vbielskyi.bmf.core.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the codec for a cache key and frames encoded values.
+ * <p>
+ * JSON values are stored as plain UTF-8 JSON, exactly as before codecs existed, so
+ * existing entries and nodes on older versions keep working. Binary codecs prefix the
+ * payload with a two byte header: a format version marker followed by the codec ID.
+ * The marker can never start a JSON document, which lets readers tell the two apart
+ * and allows switching a prefix to another codec while old entries are still live.
+ * <p>
+ * Values at or above the compression threshold are LZ4-compressed (see {@link CacheCompressor})
+ * and always framed, with {@link #FLAG_COMPRESSED} set in the codec byte.
+ * Codec ID 0 is reserved for {@link #TOMBSTONE}, the marker of a cached negative result.
+ */
+@Slf4j
+@Component
+public class CacheCodecRegistry {
+
+    static final byte FORMAT_V1 = (byte) 0xB1;
+    static final int HEADER_LENGTH = 2;
+    static final byte FLAG_COMPRESSED = 0x40;
+    private static final byte CODEC_ID_MASK = 0x3F;
+
+    /**
+     * Stored in place of a value to remember that it does not exist
+     */
+    public static final byte[] TOMBSTONE = {FORMAT_V1, 0};
+
+    private static final byte JSON_ID = 1;
+    private static final byte SMILE_ID = 2;
+
+    private final Map<String, CacheCodec> codecsByName = new HashMap<>();
+    private final CacheCodec[] codecsById = new CacheCodec[CODEC_ID_MASK + 1];
+    private final List<Map.Entry<String, CacheCodec>> prefixCodecs = new ArrayList<>();
+    private final CacheCodec jsonCodec;
+    private final CacheCompressor compressor;
+
+    @Value("${bmf.cache.codec.default:json}")
+    private String defaultCodecName;
+
+    /**
+     * Codec overrides keyed by logical key prefix.
+     * Example: bmf.cache.codec.prefixes={'cart:':'smile','session:':'smile'}
+     */
+    @Value("#{${bmf.cache.codec.prefixes:{:}}}")
+    private Map<String, String> prefixCodecNames;
+
+    private CacheCodec defaultCodec;
+
+    public CacheCodecRegistry(ObjectMapper objectMapper, CacheCompressor compressor) {
+        this.compressor = compressor;
+        this.jsonCodec = new JacksonCacheCodec(JSON_ID, "json", objectMapper);
+        register(jsonCodec);
+        register(new JacksonCacheCodec(SMILE_ID, "smile", objectMapper.copyWith(new SmileFactory())));
+    }
+
+    @PostConstruct
+    void init() {
+        defaultCodec = byName(defaultCodecName);
+        prefixCodecNames.forEach((prefix, name) -> prefixCodecs.add(Map.entry(prefix, byName(name))));
+
+        // Longest prefix wins
+        prefixCodecs.sort(Comparator.comparingInt((Map.Entry<String, CacheCodec> e) -> e.getKey().length())
+                .reversed());
+        log.info("Cache codecs: default {}, {} prefix override(s)", defaultCodec.getName(), prefixCodecs.size());
+    }
+
+    /**
+     * Encode a value with the codec configured for its key
+     *
+     * @param logicalKey Key as passed to CacheService
+     * @param value      Value to encode
+     * @return Framed bytes
+     * @throws IOException If the value cannot be serialized
+     */
+    public byte[] encode(String logicalKey, Object value) throws IOException {
+        CacheCodec codec = codecFor(logicalKey);
+        byte[] payload = codec.encode(value);
+
+        if (compressor.shouldCompress(payload.length)) {
+            byte[] compressed = compressor.compress(payload, HEADER_LENGTH);
+            if (compressed != null) {
+                compressed[0] = FORMAT_V1;
+                compressed[1] = (byte) (codec.getId() | FLAG_COMPRESSED);
+                return compressed;
+            }
+        }
+
+        if (codec == jsonCodec) {
+            return payload;
+        }
+
+        byte[] framed = new byte[HEADER_LENGTH + payload.length];
+        framed[0] = FORMAT_V1;
+        framed[1] = codec.getId();
+        System.arraycopy(payload, 0, framed, HEADER_LENGTH, payload.length);
+        return framed;
+    }
+
+    /**
+     * Decode framed bytes with whichever codec wrote them
+     *
+     * @param data Framed bytes
+     * @param type Value type class
+     * @param <T>  Value type
+     * @return Decoded value, or null for a tombstone
+     * @throws IOException If the data cannot be deserialized
+     */
+    public <T> T decode(byte[] data, Class<T> type) throws IOException {
+        if (isTombstone(data)) {
+            return null;
+        }
+
+        if (data.length >= HEADER_LENGTH && data[0] == FORMAT_V1) {
+            CacheCodec codec = data[1] >= 0 ? codecsById[data[1] & CODEC_ID_MASK] : null;
+            if (codec == null) {
+                throw new IOException("Unknown cache codec ID: " + data[1]);
+            }
+
+            if ((data[1] & FLAG_COMPRESSED) != 0) {
+                byte[] payload = compressor.decompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+                return codec.decode(payload, 0, payload.length, type);
+            }
+            return codec.decode(data, HEADER_LENGTH, data.length - HEADER_LENGTH, type);
+        }
+
+        // Plain JSON
+        return jsonCodec.decode(data, 0, data.length, type);
+    }
+
+    /**
+     * Check whether stored bytes are a negative result marker
+     *
+     * @param data Stored bytes
+     * @return True if the bytes are {@link #TOMBSTONE}
+     */
+    public static boolean isTombstone(byte[] data) {
+        return data.length == HEADER_LENGTH && data[0] == FORMAT_V1 && data[1] == 0;
+    }
+
+    private CacheCodec codecFor(String logicalKey) {
+        for (Map.Entry<String, CacheCodec> entry : prefixCodecs) {
+            if (logicalKey.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return defaultCodec;
+    }
+
+    private void register(CacheCodec codec) {
+        codecsByName.put(codec.getName(), codec);
+        codecsById[codec.getId()] = codec;
+    }
+
+    private CacheCodec byName(String name) {
+        CacheCodec codec = codecsByName.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown cache codec: " + name);
+        }
+        return codec;
+    }
+}
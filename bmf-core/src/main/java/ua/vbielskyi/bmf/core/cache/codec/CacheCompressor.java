@@ -0,0 +1,169 @@
+package ua.vbielskyi.bmf.core.cache.codec;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LZ4 block compression for encoded cache values above a size threshold.
+ * Compressed blocks are written as a 4-byte big-endian original length
+ * followed by the LZ4 data. Values that do not shrink are stored as is.
+ * <p>
+ * Compressed values are always read, whatever {@code bmf.cache.compression.enabled}
+ * says, but nodes from before compression cannot read them. Roll it out in two
+ * steps: deploy this version everywhere with compression disabled (the default),
+ * then enable it once no older node is left sharing the Redis instance.
+ */
+@Component
+public class CacheCompressor {
+
+    static final int LENGTH_PREFIX = 4;
+
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    @Value("${bmf.cache.compression.enabled:false}")
+    @Getter
+    private boolean enabled;
+
+    @Value("${bmf.cache.compression.threshold-bytes:1024}")
+    @Getter
+    private int thresholdBytes;
+
+    @Value("${bmf.cache.compression.max-bytes:67108864}")
+    private int maxBytes;
+
+    private final Timer compressTimer;
+    private final Timer decompressTimer;
+    private final DistributionSummary ratio;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final Counter skipped;
+
+    public CacheCompressor(MeterRegistry meterRegistry) {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.safeDecompressor();
+
+        this.compressTimer = Timer.builder("bmf.cache.compression.time")
+                .tag("op", "compress")
+                .description("CPU time spent compressing cache values")
+                .register(meterRegistry);
+        this.decompressTimer = Timer.builder("bmf.cache.compression.time")
+                .tag("op", "decompress")
+                .description("CPU time spent decompressing cache values")
+                .register(meterRegistry);
+        this.ratio = DistributionSummary.builder("bmf.cache.compression.ratio")
+                .description("Compressed size divided by original size")
+                .scale(100)
+                .baseUnit("percent")
+                .register(meterRegistry);
+        this.bytesIn = Counter.builder("bmf.cache.compression.bytes")
+                .tag("stage", "original")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bytesOut = Counter.builder("bmf.cache.compression.bytes")
+                .tag("stage", "compressed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("bmf.cache.compression.skipped")
+                .description("Values above the threshold that did not shrink")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check whether a value of the given size should be compressed
+     *
+     * @param length Encoded value length
+     * @return True if compression should be attempted
+     */
+    public boolean shouldCompress(int length) {
+        return enabled && length >= thresholdBytes;
+    }
+
+    /**
+     * Compress a value into a new buffer, leaving room for a header
+     *
+     * @param data         Encoded value
+     * @param headerLength Bytes to reserve at the start of the result
+     * @return Buffer with the header space and compressed block, or null if the value did not shrink
+     */
+    public byte[] compress(byte[] data, int headerLength) {
+        long start = System.nanoTime();
+        int maxLength = compressor.maxCompressedLength(data.length);
+        byte[] buffer = new byte[headerLength + LENGTH_PREFIX + maxLength];
+
+        int offset = headerLength;
+        buffer[offset] = (byte) (data.length >>> 24);
+        buffer[offset + 1] = (byte) (data.length >>> 16);
+        buffer[offset + 2] = (byte) (data.length >>> 8);
+        buffer[offset + 3] = (byte) data.length;
+
+        int compressedLength = compressor.compress(data, 0, data.length,
+                buffer, offset + LENGTH_PREFIX, maxLength);
+        compressTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        int total = headerLength + LENGTH_PREFIX + compressedLength;
+        if (total >= headerLength + data.length) {
+            skipped.increment();
+            return null;
+        }
+
+        bytesIn.increment(data.length);
+        bytesOut.increment(compressedLength + LENGTH_PREFIX);
+        ratio.record((double) (compressedLength + LENGTH_PREFIX) / data.length);
+
+        byte[] result = new byte[total];
+        System.arraycopy(buffer, 0, result, 0, total);
+        return result;
+    }
+
+    /**
+     * Decompress a block written by {@link #compress(byte[], int)}
+     *
+     * @param data   Buffer holding the block
+     * @param offset Offset of the block
+     * @param length Length of the block
+     * @return Original encoded value
+     * @throws IOException If the block is corrupt
+     */
+    public byte[] decompress(byte[] data, int offset, int length) throws IOException {
+        if (length < LENGTH_PREFIX) {
+            throw new IOException("Truncated compressed cache value");
+        }
+
+        int originalLength = ((data[offset] & 0xFF) << 24)
+                | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8)
+                | (data[offset + 3] & 0xFF);
+        if (originalLength < 0 || originalLength > maxBytes) {
+            throw new IOException("Invalid compressed cache value length: " + originalLength);
+        }
+
+        long start = System.nanoTime();
+        try {
+            byte[] result = new byte[originalLength];
+            int written = decompressor.decompress(data, offset + LENGTH_PREFIX, length - LENGTH_PREFIX,
+                    result, 0, originalLength);
+            if (written != originalLength) {
+                throw new IOException("Compressed cache value length mismatch: " + written + " != " + originalLength);
+            }
+            return result;
+        } catch (LZ4Exception e) {
+            throw new IOException("Corrupt compressed cache value", e);
+        } finally {
+            decompressTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ua.vbielskyi.bmf.core.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jackson-backed codec. Readers and writers are built once per type and reused,
+ * so type resolution and serializer lookup are not repeated on every call.
+ */
+public class JacksonCacheCodec implements CacheCodec {
+
+    private final byte id;
+    private final String name;
+    private final ObjectMapper mapper;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JacksonCacheCodec(byte id, String name, ObjectMapper mapper) {
+        this.id = id;
+        this.name = name;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public byte getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        return writers.computeIfAbsent(value.getClass(), mapper::writerFor).writeValueAsBytes(value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, int offset, int length, Class<T> type) throws IOException {
+        return readers.computeIfAbsent(type, mapper::readerFor).readValue(data, offset, length);
+    }
+}
@@ -0,0 +1,196 @@
+package ua.vbielskyi.bmf.core.cache.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Makes sure a cache miss runs its loader once instead of once per caller.
+ * Concurrent callers in the same JVM share one in-flight load. With the lease
+ * enabled, nodes also agree on a single loader through a short-lived Redis lock
+ * (SET NX PX); the others poll the cache for the result until the lease wait expires.
+ * Background refreshes of stale entries are deduplicated the same way, except that
+ * losing nodes simply skip the refresh.
+ */
+@Slf4j
+@Component
+public class CacheLoadCoordinator {
+
+    private static final String LEASE_PREFIX = "bmf:cache:lease:";
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor;
+
+    @Value("${bmf.cache.lease.enabled:false}")
+    private boolean leaseEnabled;
+
+    @Value("${bmf.cache.lease.ttl-ms:10000}")
+    private long leaseTtlMs;
+
+    @Value("${bmf.cache.lease.wait-ms:3000}")
+    private long leaseWaitMs;
+
+    @Value("${bmf.cache.lease.poll-ms:50}")
+    private long leasePollMs;
+
+    public CacheLoadCoordinator(RedisTemplate<String, String> redisTemplate, ExecutorFactory executorFactory) {
+        this.redisTemplate = redisTemplate;
+        this.refreshExecutor = executorFactory.newExecutor("bmf-cache-refresh", 4);
+    }
+
+    /**
+     * Load a value for a missing key at most once across concurrent callers
+     *
+     * @param cacheKey Full Redis key
+     * @param loader   Computes and stores the value, returning its encoded form (null if nothing was computed)
+     * @param reader   Reads the encoded value from the cache, returning null if absent
+     * @return Encoded value, or null if the loader produced nothing
+     */
+    public byte[] load(String cacheKey, Supplier<byte[]> loader, Supplier<byte[]> reader) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(cacheKey, future);
+        if (existing != null) {
+            log.debug("Joining in-flight load for key: {}", cacheKey);
+            return join(existing);
+        }
+
+        try {
+            // A previous leader may have finished between our miss and taking the slot
+            byte[] value = reader.get();
+            if (value == null) {
+                value = leaseEnabled ? loadWithLease(cacheKey, loader, reader) : loader.get();
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    /**
+     * Refresh a key in the background unless a refresh for it is already running
+     *
+     * @param cacheKey  Full Redis key
+     * @param refresher Computes and stores the new value
+     */
+    public void refreshAsync(String cacheKey, Runnable refresher) {
+        if (!refreshing.add(cacheKey)) {
+            return;
+        }
+
+        try {
+            // The executor carries the caller's tenant over to the refresh
+            refreshExecutor.submit(() -> {
+                String leaseKey = LEASE_PREFIX + cacheKey;
+                String token = UUID.randomUUID().toString();
+                boolean leased = false;
+                try {
+                    if (leaseEnabled) {
+                        leased = Boolean.TRUE.equals(redisTemplate.opsForValue()
+                                .setIfAbsent(leaseKey, token, leaseTtlMs, TimeUnit.MILLISECONDS));
+                        if (!leased) {
+                            // Another node is refreshing this key
+                            return;
+                        }
+                    }
+                    refresher.run();
+                } catch (Exception e) {
+                    log.error("Error refreshing cached value for key: {}", cacheKey, e);
+                } finally {
+                    if (leased) {
+                        releaseLease(leaseKey, token);
+                    }
+                    refreshing.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(cacheKey);
+            log.warn("Background refresh rejected for key: {}", cacheKey);
+        }
+    }
+
+    private byte[] loadWithLease(String cacheKey, Supplier<byte[]> loader, Supplier<byte[]> reader) {
+        String leaseKey = LEASE_PREFIX + cacheKey;
+        String token = UUID.randomUUID().toString();
+
+        Boolean acquired;
+        try {
+            acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTtlMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Could not acquire cache lease for key: {}, loading locally", cacheKey, e);
+            return loader.get();
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return loader.get();
+            } finally {
+                releaseLease(leaseKey, token);
+            }
+        }
+
+        // Another node holds the lease, wait for its result
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseWaitMs);
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(leasePollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            byte[] value = reader.get();
+            if (value != null) {
+                return value;
+            }
+        }
+
+        log.debug("Timed out waiting for cache lease holder, loading locally: {}", cacheKey);
+        return loader.get();
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+        } catch (Exception e) {
+            // The lease expires on its own
+            log.warn("Error releasing cache lease: {}", leaseKey, e);
+        }
+    }
+
+    private byte[] join(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
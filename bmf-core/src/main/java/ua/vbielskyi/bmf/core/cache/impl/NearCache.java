@@ -0,0 +1,199 @@
+package ua.vbielskyi.bmf.core.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-node in-memory (L1) layer in front of Redis.
+ * Entries hold the encoded Redis payload, so callers always get their own
+ * deserialized copy and can mutate it freely. Regions are selected by the
+ * logical cache key prefix, each with its own size bound and TTL.
+ */
+@Slf4j
+@Component
+public class NearCache {
+
+    /**
+     * Redis pub/sub channel used to invalidate entries on other nodes
+     */
+    public static final String INVALIDATION_CHANNEL = "bmf:cache:invalidate";
+
+    @Value("${bmf.cache.near.enabled:false}")
+    @Getter
+    private boolean enabled;
+
+    @Value("${bmf.cache.near.maximum-size:10000}")
+    private long defaultMaximumSize;
+
+    @Value("${bmf.cache.near.ttl-seconds:60}")
+    private long defaultTtlSeconds;
+
+    /**
+     * Region overrides keyed by logical key prefix, value is "maximumSize,ttlSeconds".
+     * Example: bmf.cache.near.regions={'bmf:bot:':'5000,300','cart:':'20000,15'}
+     */
+    @Value("#{${bmf.cache.near.regions:{:}}}")
+    private Map<String, String> regionSpecs;
+
+    /**
+     * Identifies this node in invalidation messages so it can skip its own
+     */
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final List<Region> regions = new ArrayList<>();
+    private Region defaultRegion;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        defaultRegion = new Region("", defaultMaximumSize, defaultTtlSeconds);
+        regionSpecs.forEach((prefix, spec) -> {
+            String[] parts = spec.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid near cache region spec for prefix '" + prefix
+                        + "': " + spec + " (expected maximumSize,ttlSeconds)");
+            }
+            regions.add(new Region(prefix, Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim())));
+        });
+
+        // Longest prefix wins
+        regions.sort(Comparator.comparingInt((Region r) -> r.prefix.length()).reversed());
+        log.info("Near cache enabled: node {}, {} region(s), default size {}, ttl {}s",
+                nodeId, regions.size(), defaultMaximumSize, defaultTtlSeconds);
+    }
+
+    /**
+     * Get an encoded payload
+     *
+     * @param cacheKey   Full Redis key
+     * @param logicalKey Key as passed to CacheService, used for region selection
+     * @return Payload or null if not present
+     */
+    public byte[] get(String cacheKey, String logicalKey) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = regionFor(logicalKey).cache.getIfPresent(cacheKey);
+        return entry != null ? entry.payload : null;
+    }
+
+    /**
+     * Store an encoded payload
+     *
+     * @param cacheKey   Full Redis key
+     * @param logicalKey Key as passed to CacheService, used for region selection
+     * @param payload    Encoded value
+     * @param ttlMillis  Redis TTL of the value, or a non-positive number if it has none
+     */
+    public void put(String cacheKey, String logicalKey, byte[] payload, long ttlMillis) {
+        if (!enabled || payload == null) {
+            return;
+        }
+        long ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : Long.MAX_VALUE;
+        regionFor(logicalKey).cache.put(cacheKey, new Entry(payload, ttlNanos));
+    }
+
+    /**
+     * Invalidate a single key in every region
+     *
+     * @param cacheKey Full Redis key
+     */
+    public void invalidate(String cacheKey) {
+        if (!enabled) {
+            return;
+        }
+        defaultRegion.cache.invalidate(cacheKey);
+        for (Region region : regions) {
+            region.cache.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * Invalidate all keys starting with the given Redis key prefix
+     *
+     * @param cacheKeyPrefix Full Redis key prefix
+     */
+    public void invalidatePrefix(String cacheKeyPrefix) {
+        if (!enabled) {
+            return;
+        }
+        defaultRegion.cache.asMap().keySet().removeIf(key -> key.startsWith(cacheKeyPrefix));
+        for (Region region : regions) {
+            region.cache.asMap().keySet().removeIf(key -> key.startsWith(cacheKeyPrefix));
+        }
+    }
+
+    /**
+     * Drop all local entries
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        defaultRegion.cache.invalidateAll();
+        for (Region region : regions) {
+            region.cache.invalidateAll();
+        }
+    }
+
+    private Region regionFor(String logicalKey) {
+        for (Region region : regions) {
+            if (logicalKey.startsWith(region.prefix)) {
+                return region;
+            }
+        }
+        return defaultRegion;
+    }
+
+    private record Entry(byte[] payload, long ttlNanos) {
+    }
+
+    private static final class Region {
+        private final String prefix;
+        private final Cache<String, Entry> cache;
+
+        private Region(String prefix, long maximumSize, long ttlSeconds) {
+            this.prefix = prefix;
+            long regionTtlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfter(new Expiry<String, Entry>() {
+                        @Override
+                        public long expireAfterCreate(String key, Entry value, long currentTime) {
+                            // Never outlive the Redis entry
+                            return Math.min(regionTtlNanos, value.ttlNanos());
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String key, Entry value, long currentTime,
+                                                      long currentDuration) {
+                            return Math.min(regionTtlNanos, value.ttlNanos());
+                        }
+
+                        @Override
+                        public long expireAfterRead(String key, Entry value, long currentTime,
+                                                    long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ua.vbielskyi.bmf.core.cache.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.core.event.RedisEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Applies near cache invalidations published by other nodes.
+ * Message format: {@code <nodeId>|<op>|<key>} where op is
+ * K (single key), P (key prefix) or A (everything).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearCacheInvalidationListener implements RedisEventListener {
+
+    static final char OP_KEY = 'K';
+    static final char OP_PREFIX = 'P';
+    static final char OP_ALL = 'A';
+
+    private final NearCache nearCache;
+
+    /**
+     * Build an invalidation message
+     *
+     * @param nodeId Originating node
+     * @param op     Operation code
+     * @param key    Redis key or prefix (ignored for OP_ALL)
+     * @return Encoded message
+     */
+    static String message(String nodeId, char op, String key) {
+        return nodeId + "|" + op + "|" + (key == null ? "" : key);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!nearCache.isEnabled()) {
+            return;
+        }
+
+        try {
+            String content = new String(message.getBody(), StandardCharsets.UTF_8);
+            int first = content.indexOf('|');
+            if (first < 0 || content.length() < first + 3) {
+                log.warn("Malformed near cache invalidation message: {}", content);
+                return;
+            }
+
+            if (content.startsWith(nearCache.getNodeId())) {
+                // Already applied locally
+                return;
+            }
+
+            char op = content.charAt(first + 1);
+            String key = content.substring(first + 3);
+
+            switch (op) {
+                case OP_KEY -> nearCache.invalidate(key);
+                case OP_PREFIX -> nearCache.invalidatePrefix(key);
+                case OP_ALL -> nearCache.invalidateAll();
+                default -> log.warn("Unknown near cache invalidation op: {}", op);
+            }
+        } catch (Exception e) {
+            log.error("Error processing near cache invalidation: {}", e.getMessage(), e);
+            nearCache.invalidateAll();
+        }
+    }
+
+    @Override
+    public Collection<ChannelTopic> getChannels() {
+        return List.of(new ChannelTopic(NearCache.INVALIDATION_CHANNEL));
+    }
+}
@@ -0,0 +1,460 @@
+package ua.vbielskyi.bmf.core.cache.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ua.vbielskyi.bmf.core.cache.AsyncCacheService;
+import ua.vbielskyi.bmf.core.cache.CacheBatch;
+import ua.vbielskyi.bmf.core.cache.CacheService;
+import ua.vbielskyi.bmf.core.cache.codec.CacheCodecRegistry;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lettuce-backed implementation of AsyncCacheService. Commands are issued through
+ * the reactive template on the shared Lettuce connection, so concurrent lookups are
+ * multiplexed instead of each holding a thread. Misses in getOrElseCompute are handed
+ * to the blocking {@link CacheService} on a loader pool to keep single-flight loading.
+ */
+@Service
+@Slf4j
+public class RedisAsyncCacheServiceImpl implements AsyncCacheService {
+
+    // Value and remaining TTL in ms of each key, read together so a key expiring
+    // in between cannot turn a hit into a miss; a missing key yields nil and -2
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GET_WITH_TTL_SCRIPT = new DefaultRedisScript<>("""
+            local result = {}
+            for i, key in ipairs(KEYS) do
+                local value = redis.call('GET', key)
+                result[2 * i - 1] = value
+                result[2 * i] = value and redis.call('PTTL', key) or -2
+            end
+            return result
+            """, List.class);
+
+    private final ReactiveRedisTemplate<String, byte[]> reactiveRedisTemplate;
+    private final CacheService cacheService;
+    private final CacheCodecRegistry codecRegistry;
+    private final NearCache nearCache;
+    private final TenantCacheQuotas quotas;
+
+    private final ExecutorService loadExecutor;
+
+    public RedisAsyncCacheServiceImpl(ReactiveRedisTemplate<String, byte[]> reactiveRedisTemplate,
+                                      CacheService cacheService,
+                                      CacheCodecRegistry codecRegistry,
+                                      NearCache nearCache,
+                                      TenantCacheQuotas quotas,
+                                      ExecutorFactory executorFactory) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.cacheService = cacheService;
+        this.codecRegistry = codecRegistry;
+        this.nearCache = nearCache;
+        this.quotas = quotas;
+        this.loadExecutor = executorFactory.newExecutor("bmf-cache-load", 10);
+    }
+
+    // ========== Tenant-specific cache operations ==========
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> get(String key, Class<T> type, UUID tenantId) {
+        return read(RedisCacheServiceImpl.buildTenantKey(key, tenantId), key, type).toFuture();
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getAll(Collection<String> keys, Class<T> type, UUID tenantId) {
+        return readAll(keys, type, key -> RedisCacheServiceImpl.buildTenantKey(key, tenantId));
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> put(String key, T value, long expiration, TimeUnit timeUnit, UUID tenantId) {
+        return write(key, value, expiration, timeUnit, tenantId).toFuture();
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> putAll(Map<String, T> values, long expiration, TimeUnit timeUnit,
+                                              UUID tenantId) {
+        List<Mono<Void>> writes = new ArrayList<>(values.size());
+        values.forEach((key, value) -> writes.add(write(key, value, expiration, timeUnit, tenantId)));
+        return Mono.when(writes).toFuture();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getOrElseCompute(String key, Class<T> type, Supplier<T> supplier,
+                                                     long expiration, TimeUnit timeUnit, UUID tenantId) {
+        return getOrCompute(RedisCacheServiceImpl.buildTenantKey(key, tenantId), key, type,
+                () -> cacheService.getOrElseCompute(key, type, supplier, expiration, timeUnit, tenantId));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(String key, UUID tenantId) {
+        return unlink(key, tenantId).toFuture();
+    }
+
+    // ========== General (non-tenant-specific) cache operations ==========
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> get(String key, Class<T> type) {
+        return read(RedisCacheServiceImpl.buildGeneralKey(key), key, type).toFuture();
+    }
+
+    @Override
+    public <T> CompletableFuture<Map<String, T>> getAll(Collection<String> keys, Class<T> type) {
+        return readAll(keys, type, RedisCacheServiceImpl::buildGeneralKey);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> put(String key, T value, long expiration, TimeUnit timeUnit) {
+        return write(key, value, expiration, timeUnit, null).toFuture();
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> putAll(Map<String, T> values, long expiration, TimeUnit timeUnit) {
+        List<Mono<Void>> writes = new ArrayList<>(values.size());
+        values.forEach((key, value) -> writes.add(write(key, value, expiration, timeUnit, null)));
+        return Mono.when(writes).toFuture();
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getOrElseCompute(String key, Class<T> type, Supplier<T> supplier,
+                                                     long expiration, TimeUnit timeUnit) {
+        return getOrCompute(RedisCacheServiceImpl.buildGeneralKey(key), key, type,
+                () -> cacheService.getOrElseCompute(key, type, supplier, expiration, timeUnit));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(String key) {
+        return unlink(key, null).toFuture();
+    }
+
+    // ========== Batch operations ==========
+
+    @Override
+    public CompletableFuture<Void> executeBatch(Consumer<CacheBatch> operations) {
+        ReactiveCacheBatch batch = new ReactiveCacheBatch();
+        operations.accept(batch);
+        return Mono.when(batch.commands).toFuture();
+    }
+
+    // ========== Helper methods ==========
+
+    /**
+     * Read and decode a value, trying the near cache before Redis
+     *
+     * @param cacheKey   Full Redis key
+     * @param logicalKey Key as passed by the caller
+     * @param type       Value type class
+     * @return Mono of the decoded value, empty Optional if absent or unreadable
+     */
+    private <T> Mono<Optional<T>> read(String cacheKey, String logicalKey, Class<T> type) {
+        byte[] near = nearCache.get(cacheKey, logicalKey);
+        if (near != null) {
+            return Mono.just(decode(near, type, cacheKey));
+        }
+
+        if (!nearCache.isEnabled()) {
+            return reactiveRedisTemplate.opsForValue().get(cacheKey)
+                    .map(value -> decode(value, type, cacheKey))
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorResume(e -> {
+                        log.error("Error retrieving value for key: {}", cacheKey, e);
+                        return Mono.just(Optional.empty());
+                    });
+        }
+
+        return getWithTtl(List.of(cacheKey))
+                .map(fetched -> {
+                    byte[] value = (byte[]) fetched.get(0);
+                    if (value == null) {
+                        return Optional.<T>empty();
+                    }
+                    nearCache.put(cacheKey, logicalKey, value, ttlMillis(fetched.get(1)));
+                    return decode(value, type, cacheKey);
+                })
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    log.error("Error retrieving value for key: {}", cacheKey, e);
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private <T> CompletableFuture<Map<String, T>> readAll(Collection<String> keys, Class<T> type,
+                                                          Function<String, String> keyBuilder) {
+        Map<String, T> result = new LinkedHashMap<>();
+        List<String> missingKeys = new ArrayList<>();
+        List<String> missingCacheKeys = new ArrayList<>();
+
+        for (String key : keys) {
+            String cacheKey = keyBuilder.apply(key);
+            byte[] value = nearCache.get(cacheKey, key);
+            if (value != null) {
+                decode(value, type, cacheKey).ifPresent(decoded -> result.put(key, decoded));
+            } else {
+                missingKeys.add(key);
+                missingCacheKeys.add(cacheKey);
+            }
+        }
+
+        if (missingCacheKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        if (!nearCache.isEnabled()) {
+            return reactiveRedisTemplate.opsForValue().multiGet(missingCacheKeys)
+                    .map(values -> {
+                        for (int i = 0; i < missingKeys.size() && i < values.size(); i++) {
+                            byte[] value = values.get(i);
+                            if (value != null) {
+                                String key = missingKeys.get(i);
+                                decode(value, type, missingCacheKeys.get(i))
+                                        .ifPresent(decoded -> result.put(key, decoded));
+                            }
+                        }
+                        return result;
+                    })
+                    .onErrorResume(e -> {
+                        log.error("Error retrieving {} values", missingCacheKeys.size(), e);
+                        return Mono.just(result);
+                    })
+                    .defaultIfEmpty(result)
+                    .toFuture();
+        }
+
+        return getWithTtl(missingCacheKeys)
+                .map(fetched -> {
+                    for (int i = 0; i < missingKeys.size() && 2 * i + 1 < fetched.size(); i++) {
+                        byte[] value = (byte[]) fetched.get(2 * i);
+                        if (value == null) {
+                            continue;
+                        }
+                        String key = missingKeys.get(i);
+                        nearCache.put(missingCacheKeys.get(i), key, value, ttlMillis(fetched.get(2 * i + 1)));
+                        decode(value, type, missingCacheKeys.get(i)).ifPresent(decoded -> result.put(key, decoded));
+                    }
+                    return result;
+                })
+                .onErrorResume(e -> {
+                    log.error("Error retrieving {} values", missingCacheKeys.size(), e);
+                    return Mono.just(result);
+                })
+                .defaultIfEmpty(result)
+                .toFuture();
+    }
+
+    /**
+     * Encode and write a value, indexing tenant keys, then update the near cache
+     *
+     * @param key        Key as passed by the caller
+     * @param value      Value to cache
+     * @param expiration Expiration, non-positive for none
+     * @param timeUnit   Time unit for expiration
+     * @param tenantId   Tenant ID, null for general keys
+     * @return Mono completing once Redis acknowledged the write
+     */
+    private Mono<Void> write(String key, Object value, long expiration, TimeUnit timeUnit, UUID tenantId) {
+        String cacheKey = tenantId != null
+                ? RedisCacheServiceImpl.buildTenantKey(key, tenantId)
+                : RedisCacheServiceImpl.buildGeneralKey(key);
+
+        byte[] payload;
+        try {
+            payload = codecRegistry.encode(key, value);
+        } catch (IOException e) {
+            log.error("Error serializing value for key: {}", cacheKey, e);
+            return Mono.empty();
+        }
+
+        long ttlMillis = expiration > 0 ? timeUnit.toMillis(expiration) : 0;
+        Mono<?> command;
+        if (tenantId != null) {
+            // Same script as the blocking path, so indexing and accounting stay in step
+            List<String> keys = new ArrayList<>(RedisCacheServiceImpl.tenantScriptKeys(tenantId));
+            keys.add(cacheKey);
+            List<byte[]> args = List.of(RedisCacheServiceImpl.tenantWriteArgs(payload, expiration, timeUnit,
+                    quotas.quotaFor(tenantId), System.currentTimeMillis()));
+            command = reactiveRedisTemplate.execute(RedisCacheServiceImpl.TENANT_WRITE_SCRIPT, keys, args,
+                            RedisElementWriter.from(RedisSerializer.byteArray()),
+                            RedisElementReader.from(RedisSerializer.string()))
+                    .next()
+                    .flatMap(victims -> evict(RedisCacheServiceImpl.victimKeys(victims), tenantId));
+        } else {
+            command = set(cacheKey, payload, ttlMillis);
+        }
+
+        return command
+                .then(Mono.defer(() -> {
+                    if (!nearCache.isEnabled()) {
+                        return Mono.<Void>empty();
+                    }
+                    nearCache.put(cacheKey, key, payload, ttlMillis);
+                    return publishInvalidation(cacheKey);
+                }))
+                .doOnError(e -> log.error("Error caching value for key: {}", cacheKey, e));
+    }
+
+    /**
+     * Unlink a key, through the unlink script for tenant keys so indexing and accounting
+     * stay in step, then drop it from every node's near cache
+     *
+     * @param key      Key as passed by the caller
+     * @param tenantId Tenant ID, null for general keys
+     * @return Mono completing once the key is removed
+     */
+    private Mono<Void> unlink(String key, UUID tenantId) {
+        if (tenantId == null) {
+            String cacheKey = RedisCacheServiceImpl.buildGeneralKey(key);
+            return delete(cacheKey, reactiveRedisTemplate.unlink(cacheKey));
+        }
+
+        String cacheKey = RedisCacheServiceImpl.buildTenantKey(key, tenantId);
+        List<String> keys = new ArrayList<>(RedisCacheServiceImpl.tenantScriptKeys(tenantId));
+        keys.add(cacheKey);
+        Mono<Long> unlink = reactiveRedisTemplate.execute(RedisCacheServiceImpl.TENANT_UNLINK_SCRIPT, keys).next();
+        return delete(cacheKey, unlink);
+    }
+
+    /**
+     * Read values and their remaining TTLs in one round trip
+     *
+     * @param cacheKeys Full Redis keys
+     * @return Mono of value, PTTL pairs flattened in key order
+     */
+    @SuppressWarnings("unchecked")
+    private Mono<List<Object>> getWithTtl(List<String> cacheKeys) {
+        return reactiveRedisTemplate.execute(GET_WITH_TTL_SCRIPT, cacheKeys, List.of(),
+                        RedisElementWriter.from(RedisSerializer.byteArray()),
+                        RedisElementReader.from(RedisSerializer.byteArray()))
+                .next()
+                .map(fetched -> (List<Object>) fetched);
+    }
+
+    /**
+     * Remaining TTL as returned by PTTL, zero if the key has none
+     */
+    private static long ttlMillis(Object pttl) {
+        return pttl instanceof Long millis && millis > 0 ? millis : 0;
+    }
+
+    private Mono<Boolean> set(String cacheKey, byte[] payload, long ttlMillis) {
+        return ttlMillis > 0
+                ? reactiveRedisTemplate.opsForValue().set(cacheKey, payload, Duration.ofMillis(ttlMillis))
+                : reactiveRedisTemplate.opsForValue().set(cacheKey, payload);
+    }
+
+    /**
+     * Unlink keys the write script evicted and drop them from every node's near cache
+     */
+    private Mono<Void> evict(List<String> victims, UUID tenantId) {
+        if (victims.isEmpty()) {
+            return Mono.empty();
+        }
+        quotas.recordEvictions(tenantId, victims.size());
+        return reactiveRedisTemplate.unlink(victims.toArray(String[]::new))
+                .thenMany(Flux.fromIterable(victims).concatMap(victim -> delete(victim, Mono.empty())))
+                .then();
+    }
+
+    private Mono<Void> delete(String cacheKey, Mono<Long> unlink) {
+        return unlink
+                .then(Mono.defer(() -> {
+                    if (!nearCache.isEnabled()) {
+                        return Mono.<Void>empty();
+                    }
+                    nearCache.invalidate(cacheKey);
+                    return publishInvalidation(cacheKey);
+                }))
+                .doOnError(e -> log.error("Error removing value for key: {}", cacheKey, e));
+    }
+
+    private Mono<Void> publishInvalidation(String cacheKey) {
+        byte[] message = RedisCacheServiceImpl.utf8(NearCacheInvalidationListener.message(
+                nearCache.getNodeId(), NearCacheInvalidationListener.OP_KEY, cacheKey));
+        return reactiveRedisTemplate.convertAndSend(NearCache.INVALIDATION_CHANNEL, message)
+                .onErrorResume(e -> {
+                    log.error("Error publishing near cache invalidation for key: {}", cacheKey, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Serve a hit from the cache without blocking, or run the blocking
+     * get-or-compute path on the loader pool on a miss
+     */
+    private <T> CompletableFuture<T> getOrCompute(String cacheKey, String logicalKey, Class<T> type,
+                                                  Supplier<T> loader) {
+        // Bound here: the miss is handed over from a Redis client thread, which has no tenant
+        Executor tenantLoadExecutor = ExecutorFactory.withCurrentTenant(loadExecutor);
+
+        return read(cacheKey, logicalKey, type).toFuture().thenCompose(cached -> cached.isPresent()
+                ? CompletableFuture.completedFuture(cached.get())
+                : CompletableFuture.supplyAsync(loader, tenantLoadExecutor));
+    }
+
+    /**
+     * Collects batch operations as cold commands. They are subscribed together, so
+     * Lettuce writes them to the shared connection back to back without waiting for
+     * replies: one pipelined round trip, like the blocking batch.
+     */
+    private class ReactiveCacheBatch implements CacheBatch {
+
+        private final List<Mono<Void>> commands = new ArrayList<>();
+
+        @Override
+        public <T> CacheBatch put(String key, T value, long expiration, TimeUnit timeUnit, UUID tenantId) {
+            commands.add(write(key, value, expiration, timeUnit, tenantId));
+            return this;
+        }
+
+        @Override
+        public CacheBatch remove(String key, UUID tenantId) {
+            commands.add(unlink(key, tenantId));
+            return this;
+        }
+
+        @Override
+        public <T> CacheBatch put(String key, T value, long expiration, TimeUnit timeUnit) {
+            commands.add(write(key, value, expiration, timeUnit, null));
+            return this;
+        }
+
+        @Override
+        public CacheBatch remove(String key) {
+            commands.add(unlink(key, null));
+            return this;
+        }
+    }
+
+    private <T> Optional<T> decode(byte[] value, Class<T> type, String cacheKey) {
+        try {
+            return Optional.ofNullable(codecRegistry.decode(value, type));
+        } catch (Exception e) {
+            log.error("Error deserializing cached value for key: {}", cacheKey, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -1,25 +1,76 @@
 package ua.vbielskyi.bmf.core.cache.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import ua.vbielskyi.bmf.core.cache.codec.CacheCodecRegistry;
+import ua.vbielskyi.bmf.core.cache.CacheBatch;
 import ua.vbielskyi.bmf.core.cache.CacheService;
+import ua.vbielskyi.bmf.core.cache.CacheUsage;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Redis implementation of CacheService with support for both
- * tenant-specific and general caching
+ * tenant-specific and general caching. When the near cache is enabled,
+ * reads are served from a per-node Caffeine layer first and writes
+ * invalidate that layer on the other nodes over Redis pub/sub.
+ * <p>
+ * Tenant keys are tracked in a per-tenant sorted-set index (scored by expiry time)
+ * so that tenant-wide eviction never has to walk the whole keyspace. Keys written
+ * before the index existed are added to it by a one-time SCAN the first time a tenant's
+ * keys are listed or removed, after which a marker key records that the index is complete.
+ * General keys fall back to cursor-based SCAN. Deletes are issued as chunked UNLINKs
+ * so Redis frees memory off the main thread.
+ * <p>
+ * Every tenant also has an LRU sorted set (scored by last access) and a usage hash holding
+ * per-key sizes plus running byte, key and eviction totals, reported by {@link #getUsage(UUID)}
+ * whether or not quotas are enforced. Tenant writes run as one Lua script that stores the value,
+ * updates the accounting, prunes expired members and, when the tenant has a
+ * {@link TenantCacheQuotas quota} and is over it, picks its least recently used keys as victims.
+ * The script only settles the victims' accounting and returns them; they are unlinked and
+ * invalidated in the near cache by the caller, so the script touches no key it was not given.
+ * The accounting is approximate: it counts encoded value bytes only, and keys that Redis
+ * expires are settled lazily on later writes.
+ * <p>
+ * Values are stored as bytes encoded by the codec selected for the key prefix
+ * (see {@link CacheCodecRegistry}); keys, index members and pub/sub messages stay strings.
  */
 @Service
 @Slf4j
@@ -27,10 +78,114 @@ import java.util.stream.Collectors;
 public class RedisCacheServiceImpl implements CacheService {
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final CacheCodecRegistry codecRegistry;
+    private final NearCache nearCache;
+    private final CacheLoadCoordinator loadCoordinator;
+    private final TenantCacheQuotas quotas;
+
+    @Value("${bmf.cache.refresh.beta:1.0}")
+    private double refreshBeta;
+
+    // Tenants whose index is known to be complete, so the marker is not read on every call
+    private final Set<UUID> indexedTenants = ConcurrentHashMap.newKeySet();
 
     private static final String TENANT_CACHE_PREFIX = "bmf:tenant:cache:";
     private static final String GENERAL_CACHE_PREFIX = "bmf:general:cache:";
+    private static final String TENANT_INDEX_PREFIX = "bmf:tenant:cache-index:";
+    private static final String TENANT_LRU_PREFIX = "bmf:tenant:cache-lru:";
+    static final String TENANT_USAGE_PREFIX = "bmf:tenant:cache-usage:";
+    private static final String TENANT_INDEXED_PREFIX = "bmf:tenant:cache-indexed:";
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    /**
+     * Index score of keys without a TTL, used by every write path. Index reads go up to
+     * +inf so that members scored +inf by earlier versions are still found.
+     */
+    static final double NO_EXPIRY_SCORE = Double.MAX_VALUE;
+
+    private static final String USAGE_BYTES = "#bytes";
+    private static final String USAGE_KEYS = "#keys";
+    private static final String USAGE_EVICTIONS = "#evictions";
+
+    /**
+     * Removes a member's accounting. KEYS: index, lru, usage
+     */
+    private static final String DROP_FUNCTION =
+            "local function drop(member) "
+            + "local size = redis.call('hget', KEYS[3], member) "
+            + "if size then "
+            + "redis.call('hdel', KEYS[3], member) "
+            + "redis.call('hincrby', KEYS[3], '#bytes', -tonumber(size)) "
+            + "redis.call('hincrby', KEYS[3], '#keys', -1) "
+            + "end "
+            + "redis.call('zrem', KEYS[1], member) "
+            + "redis.call('zrem', KEYS[2], member) "
+            + "end ";
+
+    /**
+     * KEYS: index, lru, usage, value key.
+     * ARGV: payload, ttl ms (0 for none), expiry score, now ms, max bytes, max keys (0 for unlimited).
+     * Returns the evicted keys, which are dropped from the accounting but still have to be unlinked.
+     */
+    private static final String TENANT_WRITE_LUA = DROP_FUNCTION
+            + "local key = KEYS[4] "
+            + "local size = string.len(ARGV[1]) "
+            + "local now = tonumber(ARGV[4]) "
+            + "if tonumber(ARGV[2]) > 0 then "
+            + "redis.call('set', key, ARGV[1], 'px', ARGV[2]) "
+            + "else "
+            + "redis.call('set', key, ARGV[1]) "
+            + "end "
+            + "redis.call('zadd', KEYS[1], ARGV[3], key) "
+            + "redis.call('zadd', KEYS[2], now, key) "
+            + "local old = redis.call('hget', KEYS[3], key) "
+            + "redis.call('hset', KEYS[3], key, size) "
+            + "if old then "
+            + "redis.call('hincrby', KEYS[3], '#bytes', size - tonumber(old)) "
+            + "else "
+            + "redis.call('hincrby', KEYS[3], '#bytes', size) "
+            + "redis.call('hincrby', KEYS[3], '#keys', 1) "
+            + "end "
+            + "for _, member in ipairs(redis.call('zrangebyscore', KEYS[1], 0, now, 'limit', 0, 100)) do "
+            + "drop(member) "
+            + "end "
+            + "local maxBytes = tonumber(ARGV[5]) "
+            + "local maxKeys = tonumber(ARGV[6]) "
+            + "local victims = {} "
+            + "if maxBytes > 0 or maxKeys > 0 then "
+            + "while #victims < 100 do "
+            + "local bytes = tonumber(redis.call('hget', KEYS[3], '#bytes') or '0') "
+            + "local keys = tonumber(redis.call('hget', KEYS[3], '#keys') or '0') "
+            + "if not ((maxBytes > 0 and bytes > maxBytes) or (maxKeys > 0 and keys > maxKeys)) then break end "
+            + "local victim = redis.call('zrange', KEYS[2], 0, 0)[1] "
+            + "if not victim or victim == key then break end "
+            + "drop(victim) "
+            + "table.insert(victims, victim) "
+            + "end "
+            + "if #victims > 0 then redis.call('hincrby', KEYS[3], '#evictions', #victims) end "
+            + "end "
+            + "return victims";
+
+    /**
+     * KEYS: index, lru, usage, then the value keys. Returns the number of keys unlinked.
+     */
+    private static final String TENANT_UNLINK_LUA = DROP_FUNCTION
+            + "local removed = 0 "
+            + "for i = 4, #KEYS do "
+            + "removed = removed + redis.call('unlink', KEYS[i]) "
+            + "drop(KEYS[i]) "
+            + "end "
+            + "return removed";
+
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> TENANT_WRITE_SCRIPT = new DefaultRedisScript<>(TENANT_WRITE_LUA, List.class);
+    static final RedisScript<Long> TENANT_UNLINK_SCRIPT = new DefaultRedisScript<>(TENANT_UNLINK_LUA, Long.class);
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final RedisSerializer<List> VICTIM_SERIALIZER = (RedisSerializer) RedisSerializer.string();
+    private static final byte[] TENANT_WRITE_BYTES = utf8(TENANT_WRITE_LUA);
+    private static final byte[] TENANT_UNLINK_BYTES = utf8(TENANT_UNLINK_LUA);
 
     // ========== Tenant-specific cache operations ==========
 
@@ -38,10 +193,10 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> void put(String key, T value, UUID tenantId) {
         try {
             String cacheKey = buildTenantKey(key, tenantId);
-            String jsonValue = objectMapper.writeValueAsString(value);
-            redisTemplate.opsForValue().set(cacheKey, jsonValue);
+            byte[] payload = codecRegistry.encode(key, value);
+            store(cacheKey, key, payload, 0, null, tenantId);
             log.debug("Cached value for tenant key: {}, tenant: {}", key, tenantId);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Error serializing value for tenant key: {}, tenant: {}", key, tenantId, e);
         }
     }
@@ -50,10 +205,10 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> void put(String key, T value, long expiration, TimeUnit timeUnit, UUID tenantId) {
         try {
             String cacheKey = buildTenantKey(key, tenantId);
-            String jsonValue = objectMapper.writeValueAsString(value);
-            redisTemplate.opsForValue().set(cacheKey, jsonValue, expiration, timeUnit);
+            byte[] payload = codecRegistry.encode(key, value);
+            store(cacheKey, key, payload, expiration, timeUnit, tenantId);
             log.debug("Cached value with expiration for tenant key: {}, tenant: {}", key, tenantId);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Error serializing value with expiration for tenant key: {}, tenant: {}", key, tenantId, e);
         }
     }
@@ -62,14 +217,15 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> Optional<T> get(String key, Class<T> type, UUID tenantId) {
         try {
             String cacheKey = buildTenantKey(key, tenantId);
-            String value = redisTemplate.opsForValue().get(cacheKey);
+            byte[] value = readThrough(cacheKey, key);
 
             if (value == null) {
                 return Optional.empty();
             }
+            quotas.touch(cacheKey, buildTenantLruKey(tenantId), tenantId);
 
-            T result = objectMapper.readValue(value, type);
-            return Optional.of(result);
+            T result = codecRegistry.decode(value, type);
+            return Optional.ofNullable(result);
         } catch (Exception e) {
             log.error("Error retrieving value for tenant key: {}, tenant: {}", key, tenantId, e);
             return Optional.empty();
@@ -77,80 +233,92 @@ public class RedisCacheServiceImpl implements CacheService {
     }
 
     @Override
-    public <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier, UUID tenantId) {
-        Optional<T> cachedValue = get(key, type, tenantId);
-
-        if (cachedValue.isPresent()) {
-            log.debug("Cache hit for tenant key: {}, tenant: {}", key, tenantId);
-            return cachedValue.get();
-        }
-
-        log.debug("Cache miss for tenant key: {}, tenant: {}", key, tenantId);
-        T computedValue = supplier.get();
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> type, UUID tenantId) {
+        return readAll(keys, type, key -> buildTenantKey(key, tenantId));
+    }
 
-        if (computedValue != null) {
-            put(key, computedValue, tenantId);
-        }
+    @Override
+    public <T> void putAll(Map<String, T> values, long expiration, TimeUnit timeUnit, UUID tenantId) {
+        executeBatch(batch -> values.forEach((key, value) -> batch.put(key, value, expiration, timeUnit, tenantId)));
+        log.debug("Cached {} values for tenant: {}", values.size(), tenantId);
+    }
 
-        return computedValue;
+    @Override
+    public <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier, UUID tenantId) {
+        return getOrCompute(buildTenantKey(key, tenantId), key, type, supplier, 0, null, tenantId);
     }
 
     @Override
     public <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier, long expiration, TimeUnit timeUnit, UUID tenantId) {
-        Optional<T> cachedValue = get(key, type, tenantId);
-
-        if (cachedValue.isPresent()) {
-            log.debug("Cache hit for tenant key: {}, tenant: {}", key, tenantId);
-            return cachedValue.get();
-        }
-
-        log.debug("Cache miss for tenant key: {}, tenant: {}", key, tenantId);
-        T computedValue = supplier.get();
+        return getOrCompute(buildTenantKey(key, tenantId), key, type, supplier, expiration, timeUnit, tenantId);
+    }
 
-        if (computedValue != null) {
-            put(key, computedValue, expiration, timeUnit, tenantId);
-        }
+    @Override
+    public <T> T getOrElseComputeWithRefresh(String key, Class<T> type, Supplier<T> supplier,
+                                             long softExpiration, long hardExpiration, TimeUnit timeUnit,
+                                             UUID tenantId) {
+        return getOrComputeWithRefresh(buildTenantKey(key, tenantId), key, type, supplier,
+                softExpiration, hardExpiration, timeUnit, tenantId);
+    }
 
-        return computedValue;
+    @Override
+    public <T> Optional<T> getOrElseComputeOptional(String key, Class<T> type, Supplier<Optional<T>> supplier,
+                                                    long expiration, long negativeExpiration, TimeUnit timeUnit,
+                                                    UUID tenantId) {
+        return getOrComputeOptional(buildTenantKey(key, tenantId), key, type, supplier,
+                expiration, negativeExpiration, timeUnit, tenantId);
     }
 
     @Override
     public void remove(String key, UUID tenantId) {
         String cacheKey = buildTenantKey(key, tenantId);
-        redisTemplate.delete(cacheKey);
+        unlinkBatch(List.of(cacheKey), tenantId);
+        invalidateNear(NearCacheInvalidationListener.OP_KEY, cacheKey);
         log.debug("Removed cached value for tenant key: {}, tenant: {}", key, tenantId);
     }
 
     @Override
     public void removeAll(UUID tenantId) {
-        String pattern = TENANT_CACHE_PREFIX + tenantId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
+        String tenantPrefix = TENANT_CACHE_PREFIX + tenantId + ":";
+        invalidateNear(NearCacheInvalidationListener.OP_PREFIX, tenantPrefix);
+
+        ensureIndexed(tenantId);
+        long count = unlinkIndexed(tenantId, tenantPrefix + "*");
+        redisTemplate.unlink(List.of(buildTenantIndexKey(tenantId), buildTenantLruKey(tenantId),
+                buildTenantUsageKey(tenantId)));
 
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-            log.debug("Removed all cached values for tenant: {}, count: {}", tenantId, keys.size());
+        if (count > 0) {
+            log.debug("Removed all cached values for tenant: {}, count: {}", tenantId, count);
         }
     }
 
     @Override
     public void removeByPattern(String keyPattern, UUID tenantId) {
-        String pattern = TENANT_CACHE_PREFIX + tenantId + ":" + keyPattern;
-        Set<String> keys = redisTemplate.keys(pattern);
+        String tenantPrefix = TENANT_CACHE_PREFIX + tenantId + ":";
+        invalidateNear(NearCacheInvalidationListener.OP_PREFIX, tenantPrefix);
 
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
+        ensureIndexed(tenantId);
+        long count = unlinkIndexed(tenantId, tenantPrefix + keyPattern);
+
+        if (count > 0) {
             log.debug("Removed cached values by pattern: {}, tenant: {}, count: {}",
-                    keyPattern, tenantId, keys.size());
+                    keyPattern, tenantId, count);
         }
     }
 
     @Override
     public List<String> getKeys(UUID tenantId) {
-        String pattern = TENANT_CACHE_PREFIX + tenantId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
+        String tenantPrefix = TENANT_CACHE_PREFIX + tenantId + ":";
+
+        ensureIndexed(tenantId);
+        Set<String> keys = redisTemplate.opsForZSet().rangeByScore(buildTenantIndexKey(tenantId),
+                System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        if (keys == null) {
+            return new ArrayList<>();
+        }
 
         return keys.stream()
-                .map(key -> key.substring((TENANT_CACHE_PREFIX + tenantId + ":").length()))
+                .map(key -> key.substring(tenantPrefix.length()))
                 .collect(Collectors.toList());
     }
 
@@ -160,16 +328,26 @@ public class RedisCacheServiceImpl implements CacheService {
         return redisTemplate.hasKey(cacheKey);
     }
 
+    @Override
+    public CacheUsage getUsage(UUID tenantId) {
+        List<Object> totals = redisTemplate.opsForHash().multiGet(buildTenantUsageKey(tenantId),
+                List.of(USAGE_BYTES, USAGE_KEYS, USAGE_EVICTIONS));
+        if (totals == null || totals.stream().allMatch(Objects::isNull)) {
+            return CacheUsage.EMPTY;
+        }
+        return new CacheUsage(parseCount(totals.get(0)), parseCount(totals.get(1)), parseCount(totals.get(2)));
+    }
+
     // ========== General (non-tenant-specific) cache operations ==========
 
     @Override
     public <T> void put(String key, T value) {
         try {
             String cacheKey = buildGeneralKey(key);
-            String jsonValue = objectMapper.writeValueAsString(value);
-            redisTemplate.opsForValue().set(cacheKey, jsonValue);
+            byte[] payload = codecRegistry.encode(key, value);
+            store(cacheKey, key, payload, 0, null, null);
             log.debug("Cached value for general key: {}", key);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Error serializing value for general key: {}", key, e);
         }
     }
@@ -178,10 +356,10 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> void put(String key, T value, long expiration, TimeUnit timeUnit) {
         try {
             String cacheKey = buildGeneralKey(key);
-            String jsonValue = objectMapper.writeValueAsString(value);
-            redisTemplate.opsForValue().set(cacheKey, jsonValue, expiration, timeUnit);
+            byte[] payload = codecRegistry.encode(key, value);
+            store(cacheKey, key, payload, expiration, timeUnit, null);
             log.debug("Cached value with expiration for general key: {}", key);
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Error serializing value with expiration for general key: {}", key, e);
         }
     }
@@ -190,14 +368,14 @@ public class RedisCacheServiceImpl implements CacheService {
     public <T> Optional<T> get(String key, Class<T> type) {
         try {
             String cacheKey = buildGeneralKey(key);
-            String value = redisTemplate.opsForValue().get(cacheKey);
+            byte[] value = readThrough(cacheKey, key);
 
             if (value == null) {
                 return Optional.empty();
             }
 
-            T result = objectMapper.readValue(value, type);
-            return Optional.of(result);
+            T result = codecRegistry.decode(value, type);
+            return Optional.ofNullable(result);
         } catch (Exception e) {
             log.error("Error retrieving value for general key: {}", key, e);
             return Optional.empty();
@@ -205,76 +383,71 @@ public class RedisCacheServiceImpl implements CacheService {
     }
 
     @Override
-    public <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier) {
-        Optional<T> cachedValue = get(key, type);
-
-        if (cachedValue.isPresent()) {
-            log.debug("Cache hit for general key: {}", key);
-            return cachedValue.get();
-        }
-
-        log.debug("Cache miss for general key: {}", key);
-        T computedValue = supplier.get();
+    public <T> Map<String, T> getAll(Collection<String> keys, Class<T> type) {
+        return readAll(keys, type, RedisCacheServiceImpl::buildGeneralKey);
+    }
 
-        if (computedValue != null) {
-            put(key, computedValue);
-        }
+    @Override
+    public <T> void putAll(Map<String, T> values, long expiration, TimeUnit timeUnit) {
+        executeBatch(batch -> values.forEach((key, value) -> batch.put(key, value, expiration, timeUnit)));
+        log.debug("Cached {} general values", values.size());
+    }
 
-        return computedValue;
+    @Override
+    public <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier) {
+        return getOrCompute(buildGeneralKey(key), key, type, supplier, 0, null, null);
     }
 
     @Override
     public <T> T getOrElseCompute(String key, Class<T> type, Supplier<T> supplier, long expiration, TimeUnit timeUnit) {
-        Optional<T> cachedValue = get(key, type);
-
-        if (cachedValue.isPresent()) {
-            log.debug("Cache hit for general key: {}", key);
-            return cachedValue.get();
-        }
-
-        log.debug("Cache miss for general key: {}", key);
-        T computedValue = supplier.get();
+        return getOrCompute(buildGeneralKey(key), key, type, supplier, expiration, timeUnit, null);
+    }
 
-        if (computedValue != null) {
-            put(key, computedValue, expiration, timeUnit);
-        }
+    @Override
+    public <T> T getOrElseComputeWithRefresh(String key, Class<T> type, Supplier<T> supplier,
+                                             long softExpiration, long hardExpiration, TimeUnit timeUnit) {
+        return getOrComputeWithRefresh(buildGeneralKey(key), key, type, supplier,
+                softExpiration, hardExpiration, timeUnit, null);
+    }
 
-        return computedValue;
+    @Override
+    public <T> Optional<T> getOrElseComputeOptional(String key, Class<T> type, Supplier<Optional<T>> supplier,
+                                                    long expiration, long negativeExpiration, TimeUnit timeUnit) {
+        return getOrComputeOptional(buildGeneralKey(key), key, type, supplier,
+                expiration, negativeExpiration, timeUnit, null);
     }
 
     @Override
     public void remove(String key) {
         String cacheKey = buildGeneralKey(key);
         redisTemplate.delete(cacheKey);
+        invalidateNear(NearCacheInvalidationListener.OP_KEY, cacheKey);
         log.debug("Removed cached value for general key: {}", key);
     }
 
     @Override
     public void removeAll() {
-        String pattern = GENERAL_CACHE_PREFIX + "*";
-        Set<String> keys = redisTemplate.keys(pattern);
+        invalidateNear(NearCacheInvalidationListener.OP_PREFIX, GENERAL_CACHE_PREFIX);
+        long count = unlinkScanned(GENERAL_CACHE_PREFIX + "*");
 
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
-            log.debug("Removed all general cached values, count: {}", keys.size());
+        if (count > 0) {
+            log.debug("Removed all general cached values, count: {}", count);
         }
     }
 
     @Override
     public void removeByPattern(String keyPattern) {
-        String pattern = GENERAL_CACHE_PREFIX + keyPattern;
-        Set<String> keys = redisTemplate.keys(pattern);
+        invalidateNear(NearCacheInvalidationListener.OP_PREFIX, GENERAL_CACHE_PREFIX);
+        long count = unlinkScanned(GENERAL_CACHE_PREFIX + keyPattern);
 
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
-            log.debug("Removed general cached values by pattern: {}, count: {}", keyPattern, keys.size());
+        if (count > 0) {
+            log.debug("Removed general cached values by pattern: {}, count: {}", keyPattern, count);
         }
     }
 
     @Override
     public List<String> getKeys() {
-        String pattern = GENERAL_CACHE_PREFIX + "*";
-        Set<String> keys = redisTemplate.keys(pattern);
+        List<String> keys = scanKeys(GENERAL_CACHE_PREFIX + "*");
 
         return keys.stream()
                 .map(key -> key.substring(GENERAL_CACHE_PREFIX.length()))
@@ -288,8 +461,826 @@ public class RedisCacheServiceImpl implements CacheService {
         return Boolean.TRUE.equals(exists);
     }
 
+    /**
+     * Stored form of values cached with a soft expiry
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class RefreshableEntry {
+        private JsonNode value;
+        private long softExpiresAt;
+        private long computeMillis;
+    }
+
+    // ========== Batch operations ==========
+
+    @Override
+    public void executeBatch(Consumer<CacheBatch> operations) {
+        RedisCacheBatch batch = new RedisCacheBatch();
+        operations.accept(batch);
+        batch.execute();
+    }
+
+    /**
+     * Pipelined batch. Redis commands are queued as callbacks and sent in one
+     * round trip; near cache updates are applied locally once the pipeline succeeds.
+     */
+    private class RedisCacheBatch implements CacheBatch {
+
+        private final List<Consumer<RedisOperations<String, byte[]>>> commands = new ArrayList<>();
+        private final List<Runnable> localEffects = new ArrayList<>();
+        // Tenant of each write script, in order, to match the victim lists in the results
+        private final List<UUID> scriptedWrites = new ArrayList<>();
+        private final long now = System.currentTimeMillis();
+
+        @Override
+        public <T> CacheBatch put(String key, T value, long expiration, TimeUnit timeUnit, UUID tenantId) {
+            try {
+                String cacheKey = buildTenantKey(key, tenantId);
+                byte[] payload = codecRegistry.encode(key, value);
+                List<String> keys = new ArrayList<>(tenantScriptKeys(tenantId));
+                keys.add(cacheKey);
+                byte[][] keysAndArgs = keysAndArgs(keys, tenantWriteArgs(payload, expiration, timeUnit,
+                        quotas.quotaFor(tenantId), now));
+
+                // Plain EVAL: an EVALSHA miss cannot be retried inside a pipeline
+                commands.add(ops -> ops.execute((RedisCallback<Object>) connection -> connection.scriptingCommands()
+                        .eval(TENANT_WRITE_BYTES, ReturnType.MULTI, 4, keysAndArgs)));
+                scriptedWrites.add(tenantId);
+                addNearWrite(cacheKey, key, payload, expiration > 0 ? timeUnit.toMillis(expiration) : 0);
+            } catch (IOException e) {
+                log.error("Error serializing batch value for tenant key: {}, tenant: {}", key, tenantId, e);
+            }
+            return this;
+        }
+
+        @Override
+        public CacheBatch remove(String key, UUID tenantId) {
+            String cacheKey = buildTenantKey(key, tenantId);
+            List<String> keys = new ArrayList<>(tenantScriptKeys(tenantId));
+            keys.add(cacheKey);
+            byte[][] keysAndArgs = keysAndArgs(keys);
+
+            commands.add(ops -> ops.execute((RedisCallback<Object>) connection -> connection.scriptingCommands()
+                    .eval(TENANT_UNLINK_BYTES, ReturnType.INTEGER, keysAndArgs.length, keysAndArgs)));
+            addNearInvalidation(cacheKey);
+            return this;
+        }
+
+        @Override
+        public <T> CacheBatch put(String key, T value, long expiration, TimeUnit timeUnit) {
+            try {
+                String cacheKey = buildGeneralKey(key);
+                byte[] payload = codecRegistry.encode(key, value);
+
+                commands.add(ops -> set(ops, cacheKey, payload, expiration, timeUnit));
+                addNearWrite(cacheKey, key, payload, expiration > 0 ? timeUnit.toMillis(expiration) : 0);
+            } catch (IOException e) {
+                log.error("Error serializing batch value for general key: {}", key, e);
+            }
+            return this;
+        }
+
+        @Override
+        public CacheBatch remove(String key) {
+            String cacheKey = buildGeneralKey(key);
+
+            commands.add(ops -> ops.delete(cacheKey));
+            addNearInvalidation(cacheKey);
+            return this;
+        }
+
+        private void addNearWrite(String cacheKey, String logicalKey, byte[] value, long ttlMillis) {
+            if (!nearCache.isEnabled()) {
+                return;
+            }
+            localEffects.add(() -> nearCache.put(cacheKey, logicalKey, value, ttlMillis));
+            commands.add(ops -> ops.convertAndSend(NearCache.INVALIDATION_CHANNEL,
+                    utf8(NearCacheInvalidationListener.message(nearCache.getNodeId(),
+                            NearCacheInvalidationListener.OP_KEY, cacheKey))));
+        }
+
+        private void addNearInvalidation(String cacheKey) {
+            if (!nearCache.isEnabled()) {
+                return;
+            }
+            localEffects.add(() -> nearCache.invalidate(cacheKey));
+            commands.add(ops -> ops.convertAndSend(NearCache.INVALIDATION_CHANNEL,
+                    utf8(NearCacheInvalidationListener.message(nearCache.getNodeId(),
+                            NearCacheInvalidationListener.OP_KEY, cacheKey))));
+        }
+
+        private void execute() {
+            if (commands.isEmpty()) {
+                return;
+            }
+
+            List<Object> results = binaryRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    for (Consumer<RedisOperations<String, byte[]>> command : commands) {
+                        command.accept(ops);
+                    }
+                    return null;
+                }
+            });
+
+            localEffects.forEach(Runnable::run);
+
+            // Write scripts are the only commands in a batch that reply with a list
+            int script = 0;
+            for (Object result : results) {
+                if (result instanceof List<?> victims && script < scriptedWrites.size()) {
+                    evict(victimKeys(victims), scriptedWrites.get(script++));
+                }
+            }
+            log.debug("Executed cache batch, commands: {}", commands.size());
+        }
+    }
+
     // ========== Helper methods ==========
 
+    /**
+     * Shared get-or-compute path. On a miss the supplier runs through the
+     * {@link CacheLoadCoordinator}, so concurrent callers (and, with the lease
+     * enabled, other nodes) wait for a single computation instead of all hitting
+     * the database. Callers that did not compute get their own decoded copy.
+     *
+     * @param cacheKey   Full Redis key
+     * @param key        Key as passed by the caller
+     * @param type       Value type class
+     * @param supplier   Supplier to compute the value
+     * @param expiration Expiration, non-positive for none
+     * @param timeUnit   Time unit for expiration
+     * @param tenantId   Tenant ID, null for general keys
+     * @return Cached or computed value
+     */
+    private <T> T getOrCompute(String cacheKey, String key, Class<T> type, Supplier<T> supplier,
+                               long expiration, TimeUnit timeUnit, UUID tenantId) {
+        T cachedValue = decodeQuietly(readQuietly(cacheKey, key), type, cacheKey);
+        if (cachedValue != null) {
+            log.debug("Cache hit for key: {}", cacheKey);
+            touch(cacheKey, tenantId);
+            return cachedValue;
+        }
+
+        log.debug("Cache miss for key: {}", cacheKey);
+        AtomicReference<T> computed = new AtomicReference<>();
+
+        byte[] payload = loadCoordinator.load(cacheKey, () -> {
+            T value = supplier.get();
+            if (value == null) {
+                return null;
+            }
+            computed.set(value);
+
+            try {
+                byte[] encoded = codecRegistry.encode(key, value);
+                store(cacheKey, key, encoded, expiration, timeUnit, tenantId);
+                return encoded;
+            } catch (IOException e) {
+                log.error("Error serializing computed value for key: {}", cacheKey, e);
+                return null;
+            }
+        }, () -> readQuietly(cacheKey, key));
+
+        if (computed.get() != null) {
+            return computed.get();
+        }
+        if (payload == null) {
+            return null;
+        }
+
+        T loaded = decodeQuietly(payload, type, cacheKey);
+        return loaded != null ? loaded : supplier.get();
+    }
+
+    /**
+     * Shared get-or-lookup path with negative caching. An empty lookup result is stored
+     * as a {@link CacheCodecRegistry#TOMBSTONE} for the negative expiration, so it goes
+     * through the same near cache and invalidation as real values.
+     */
+    private <T> Optional<T> getOrComputeOptional(String cacheKey, String key, Class<T> type,
+                                                 Supplier<Optional<T>> supplier, long expiration,
+                                                 long negativeExpiration, TimeUnit timeUnit, UUID tenantId) {
+        byte[] cached = readQuietly(cacheKey, key);
+        if (cached != null) {
+            if (CacheCodecRegistry.isTombstone(cached)) {
+                log.debug("Negative cache hit for key: {}", cacheKey);
+                return Optional.empty();
+            }
+            T cachedValue = decodeQuietly(cached, type, cacheKey);
+            if (cachedValue != null) {
+                touch(cacheKey, tenantId);
+                return Optional.of(cachedValue);
+            }
+        }
+
+        AtomicReference<T> computed = new AtomicReference<>();
+        byte[] payload = loadCoordinator.load(cacheKey, () -> {
+            Optional<T> value = supplier.get();
+            if (value == null || value.isEmpty()) {
+                if (negativeExpiration <= 0) {
+                    return null;
+                }
+                store(cacheKey, key, CacheCodecRegistry.TOMBSTONE, negativeExpiration, timeUnit, tenantId);
+                return CacheCodecRegistry.TOMBSTONE;
+            }
+            computed.set(value.get());
+
+            try {
+                byte[] encoded = codecRegistry.encode(key, value.get());
+                store(cacheKey, key, encoded, expiration, timeUnit, tenantId);
+                return encoded;
+            } catch (IOException e) {
+                log.error("Error serializing looked up value for key: {}", cacheKey, e);
+                return null;
+            }
+        }, () -> readQuietly(cacheKey, key));
+
+        if (computed.get() != null) {
+            return Optional.of(computed.get());
+        }
+        if (payload == null || CacheCodecRegistry.isTombstone(payload)) {
+            return Optional.empty();
+        }
+
+        T loaded = decodeQuietly(payload, type, cacheKey);
+        return loaded != null ? Optional.of(loaded) : supplier.get();
+    }
+
+    /**
+     * Shared stale-while-revalidate path. Values are stored in a {@link RefreshableEntry}
+     * that records the soft expiry and how long the supplier took. Reads past the soft
+     * expiry return the stale value and trigger a background refresh; reads shortly before
+     * it refresh early with a probability that grows as expiry approaches (XFetch), scaled
+     * by the compute time so that expensive values are refreshed earlier.
+     */
+    private <T> T getOrComputeWithRefresh(String cacheKey, String key, Class<T> type, Supplier<T> supplier,
+                                          long softExpiration, long hardExpiration, TimeUnit timeUnit,
+                                          UUID tenantId) {
+        RefreshableEntry entry = decodeQuietly(readQuietly(cacheKey, key), RefreshableEntry.class, cacheKey);
+        T cachedValue = entry != null ? treeToValueQuietly(entry, type, cacheKey) : null;
+
+        if (cachedValue != null) {
+            touch(cacheKey, tenantId);
+            if (shouldRefresh(entry)) {
+                log.debug("Refreshing cached value in background for key: {}", cacheKey);
+                loadCoordinator.refreshAsync(cacheKey, () -> computeEntry(cacheKey, key, supplier,
+                        softExpiration, hardExpiration, timeUnit, tenantId, value -> { }));
+            }
+            return cachedValue;
+        }
+
+        log.debug("Cache miss for key: {}", cacheKey);
+        AtomicReference<T> computed = new AtomicReference<>();
+        byte[] payload = loadCoordinator.load(cacheKey, () -> computeEntry(cacheKey, key, supplier,
+                softExpiration, hardExpiration, timeUnit, tenantId, computed::set), () -> readQuietly(cacheKey, key));
+
+        if (computed.get() != null) {
+            return computed.get();
+        }
+
+        if (payload == null) {
+            return null;
+        }
+
+        RefreshableEntry loaded = decodeQuietly(payload, RefreshableEntry.class, cacheKey);
+        T loadedValue = loaded != null ? treeToValueQuietly(loaded, type, cacheKey) : null;
+        return loadedValue != null ? loadedValue : supplier.get();
+    }
+
+    private <T> byte[] computeEntry(String cacheKey, String key, Supplier<T> supplier,
+                                    long softExpiration, long hardExpiration, TimeUnit timeUnit,
+                                    UUID tenantId, Consumer<T> sink) {
+        long start = System.nanoTime();
+        T value = supplier.get();
+        if (value == null) {
+            return null;
+        }
+        sink.accept(value);
+
+        try {
+            RefreshableEntry entry = new RefreshableEntry(
+                    objectMapper.valueToTree(value),
+                    System.currentTimeMillis() + timeUnit.toMillis(softExpiration),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            byte[] encoded = codecRegistry.encode(key, entry);
+            store(cacheKey, key, encoded, hardExpiration, timeUnit, tenantId);
+            return encoded;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error serializing computed value for key: {}", cacheKey, e);
+            return null;
+        }
+    }
+
+    private boolean shouldRefresh(RefreshableEntry entry) {
+        // XFetch: now - delta * beta * ln(rand) >= expiry, with rand in (0, 1]
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double earlyBy = -entry.getComputeMillis() * refreshBeta * Math.log(random);
+        return System.currentTimeMillis() + earlyBy >= entry.getSoftExpiresAt();
+    }
+
+    private <T> T treeToValueQuietly(RefreshableEntry entry, Class<T> type, String cacheKey) {
+        try {
+            return entry.getValue() != null ? objectMapper.treeToValue(entry.getValue(), type) : null;
+        } catch (Exception e) {
+            log.error("Error deserializing cached value for key: {}", cacheKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Write an encoded value to Redis (indexing tenant keys) and to the near cache
+     *
+     * @param cacheKey   Full Redis key
+     * @param logicalKey Key as passed by the caller
+     * @param value      Encoded value
+     * @param expiration Expiration, non-positive for none
+     * @param timeUnit   Time unit for expiration
+     * @param tenantId   Tenant ID, null for general keys
+     */
+    private void store(String cacheKey, String logicalKey, byte[] value, long expiration, TimeUnit timeUnit,
+                       UUID tenantId) {
+        if (tenantId != null) {
+            writeTenant(cacheKey, value, expiration, timeUnit, tenantId);
+        } else {
+            set(binaryRedisTemplate, cacheKey, value, expiration, timeUnit);
+        }
+        writeNear(cacheKey, logicalKey, value, expiration > 0 ? timeUnit.toMillis(expiration) : 0);
+    }
+
+    private byte[] readQuietly(String cacheKey, String logicalKey) {
+        try {
+            return readThrough(cacheKey, logicalKey);
+        } catch (Exception e) {
+            log.error("Error reading cached value for key: {}", cacheKey, e);
+            return null;
+        }
+    }
+
+    private <T> T decodeQuietly(byte[] value, Class<T> type, String cacheKey) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return codecRegistry.decode(value, type);
+        } catch (Exception e) {
+            log.error("Error deserializing cached value for key: {}", cacheKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Read several values, serving what is possible from the near cache and
+     * fetching the rest with a single MGET, pipelined with their PTTLs when the
+     * near cache will keep them
+     *
+     * @param keys       Keys as passed by the caller
+     * @param type       Value type class
+     * @param keyBuilder Maps a caller key to its full Redis key
+     * @return Map of found keys to values
+     */
+    private <T> Map<String, T> readAll(Collection<String> keys, Class<T> type, Function<String, String> keyBuilder) {
+        Map<String, T> result = new LinkedHashMap<>();
+        List<String> missingKeys = new ArrayList<>();
+        List<String> missingCacheKeys = new ArrayList<>();
+
+        for (String key : keys) {
+            String cacheKey = keyBuilder.apply(key);
+            byte[] value = nearCache.get(cacheKey, key);
+            if (value != null) {
+                decodeInto(result, key, value, type);
+            } else {
+                missingKeys.add(key);
+                missingCacheKeys.add(cacheKey);
+            }
+        }
+
+        if (missingCacheKeys.isEmpty()) {
+            return result;
+        }
+
+        List<byte[]> values;
+        List<Object> ttls = List.of();
+        if (nearCache.isEnabled()) {
+            List<Object> replies = binaryRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                    ops.opsForValue().multiGet(missingCacheKeys);
+                    missingCacheKeys.forEach(cacheKey -> ops.getExpire(cacheKey, TimeUnit.MILLISECONDS));
+                    return null;
+                }
+            });
+            @SuppressWarnings("unchecked")
+            List<byte[]> fetched = (List<byte[]>) replies.get(0);
+            values = fetched;
+            ttls = replies.subList(1, replies.size());
+        } else {
+            values = binaryRedisTemplate.opsForValue().multiGet(missingCacheKeys);
+        }
+        if (values == null) {
+            return result;
+        }
+
+        for (int i = 0; i < missingKeys.size(); i++) {
+            byte[] value = values.get(i);
+            if (value != null) {
+                if (i < ttls.size()) {
+                    nearCache.put(missingCacheKeys.get(i), missingKeys.get(i), value, remainingTtl(ttls.get(i)));
+                }
+                decodeInto(result, missingKeys.get(i), value, type);
+            }
+        }
+        return result;
+    }
+
+    private <T> void decodeInto(Map<String, T> result, String key, byte[] value, Class<T> type) {
+        try {
+            T decoded = codecRegistry.decode(value, type);
+            if (decoded != null) {
+                result.put(key, decoded);
+            }
+        } catch (Exception e) {
+            log.error("Error deserializing value for key: {}", key, e);
+        }
+    }
+
+    private static void set(RedisOperations<String, byte[]> ops, String cacheKey, byte[] value,
+                            long expiration, TimeUnit timeUnit) {
+        if (expiration > 0) {
+            ops.opsForValue().set(cacheKey, value, expiration, timeUnit);
+        } else {
+            ops.opsForValue().set(cacheKey, value);
+        }
+    }
+
+    /**
+     * Write a tenant value, index it and account for it in one script call. For tenants
+     * with a quota the least recently used keys are evicted if the write takes it over.
+     * Expired index members are pruned on the way.
+     *
+     * @param cacheKey   Full Redis key
+     * @param value      Encoded value
+     * @param expiration Expiration, non-positive for none
+     * @param timeUnit   Time unit for expiration (ignored if there is none)
+     * @param tenantId   Tenant ID
+     */
+    private void writeTenant(String cacheKey, byte[] value, long expiration, TimeUnit timeUnit, UUID tenantId) {
+        List<String> keys = new ArrayList<>(tenantScriptKeys(tenantId));
+        keys.add(cacheKey);
+        Object[] args = tenantWriteArgs(value, expiration, timeUnit, quotas.quotaFor(tenantId),
+                System.currentTimeMillis());
+
+        List<?> victims = binaryRedisTemplate.execute(TENANT_WRITE_SCRIPT,
+                RedisSerializer.byteArray(), VICTIM_SERIALIZER, keys, args);
+        evict(victimKeys(victims), tenantId);
+    }
+
+    /**
+     * Unlink keys the write script evicted and drop them from every node's near cache
+     *
+     * @param victims  Full Redis keys, already removed from the tenant accounting
+     * @param tenantId Tenant ID
+     */
+    private void evict(List<String> victims, UUID tenantId) {
+        if (victims.isEmpty()) {
+            return;
+        }
+        redisTemplate.unlink(victims);
+        for (String victim : victims) {
+            invalidateNear(NearCacheInvalidationListener.OP_KEY, victim);
+        }
+        quotas.recordEvictions(tenantId, victims.size());
+    }
+
+    /**
+     * Keys in a write script reply, whichever form the driver returned them in
+     */
+    static List<String> victimKeys(Collection<?> reply) {
+        if (reply == null) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>(reply.size());
+        for (Object key : reply) {
+            if (key instanceof byte[] bytes) {
+                keys.add(new String(bytes, StandardCharsets.UTF_8));
+            } else if (key != null) {
+                keys.add(key.toString());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Build the arguments of the tenant write script
+     */
+    static byte[][] tenantWriteArgs(byte[] value, long expiration, TimeUnit timeUnit,
+                                    TenantCacheQuotas.Quota quota, long now) {
+        long ttlMillis = expiration > 0 ? timeUnit.toMillis(expiration) : 0;
+        String expiresAt = ttlMillis > 0 ? String.valueOf(now + ttlMillis) : String.valueOf(NO_EXPIRY_SCORE);
+
+        return new byte[][]{
+                value,
+                utf8(String.valueOf(ttlMillis)),
+                utf8(expiresAt),
+                utf8(String.valueOf(now)),
+                utf8(String.valueOf(quota.maxBytes())),
+                utf8(String.valueOf(quota.maxKeys()))
+        };
+    }
+
+    /**
+     * Keys shared by the tenant scripts: index, LRU order and usage hash
+     */
+    static List<String> tenantScriptKeys(UUID tenantId) {
+        return List.of(buildTenantIndexKey(tenantId), buildTenantLruKey(tenantId), buildTenantUsageKey(tenantId));
+    }
+
+    /**
+     * Flatten script keys and arguments for a raw EVAL
+     */
+    private static byte[][] keysAndArgs(List<String> keys, byte[]... args) {
+        byte[][] result = new byte[keys.size() + args.length][];
+        for (int i = 0; i < keys.size(); i++) {
+            result[i] = utf8(keys.get(i));
+        }
+        System.arraycopy(args, 0, result, keys.size(), args.length);
+        return result;
+    }
+
+    private void touch(String cacheKey, UUID tenantId) {
+        if (tenantId != null) {
+            quotas.touch(cacheKey, buildTenantLruKey(tenantId), tenantId);
+        }
+    }
+
+    private static long parseCount(Object value) {
+        return value != null ? Long.parseLong(value.toString()) : 0;
+    }
+
+    /**
+     * Make sure every key of a tenant is in its index. Keys written before the index
+     * existed are found with one SCAN and added with their remaining TTL as score, then
+     * a marker records that the index is complete, so this runs once per tenant.
+     *
+     * @param tenantId Tenant ID
+     */
+    private void ensureIndexed(UUID tenantId) {
+        if (indexedTenants.contains(tenantId)) {
+            return;
+        }
+
+        String markerKey = TENANT_INDEXED_PREFIX + tenantId;
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(markerKey))) {
+            String indexKey = buildTenantIndexKey(tenantId);
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(TENANT_CACHE_PREFIX + tenantId + ":*")
+                    .count(SCAN_BATCH_SIZE)
+                    .build();
+            List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            long count = 0;
+
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() >= SCAN_BATCH_SIZE) {
+                        count += backfillIndex(indexKey, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                count += backfillIndex(indexKey, batch);
+            }
+
+            redisTemplate.opsForValue().set(markerKey, "1");
+            if (count > 0) {
+                log.info("Indexed {} cache key(s) of tenant {} written before the index existed", count, tenantId);
+            }
+        }
+        indexedTenants.add(tenantId);
+    }
+
+    /**
+     * Add keys to a tenant index unless they are already in it, scored by their PTTL
+     *
+     * @param indexKey Tenant index key
+     * @param keys     Full Redis keys
+     * @return Number of keys added
+     */
+    private long backfillIndex(String indexKey, List<String> keys) {
+        List<Object> ttls = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                keys.forEach(key -> ops.getExpire(key, TimeUnit.MILLISECONDS));
+                return null;
+            }
+        });
+
+        long now = System.currentTimeMillis();
+        Set<ZSetOperations.TypedTuple<String>> members = new HashSet<>();
+        for (int i = 0; i < keys.size(); i++) {
+            // -2: expired since the SCAN, -1: no TTL
+            if (ttls.get(i) instanceof Long pttl && pttl != -2) {
+                double score = pttl > 0 ? now + pttl : NO_EXPIRY_SCORE;
+                members.add(ZSetOperations.TypedTuple.of(keys.get(i), score));
+            }
+        }
+        if (members.isEmpty()) {
+            return 0;
+        }
+        Long added = redisTemplate.opsForZSet().addIfAbsent(indexKey, members);
+        return added != null ? added : 0;
+    }
+
+    /**
+     * Unlink all keys in a tenant index that match a pattern, in chunks
+     *
+     * @param tenantId Tenant ID
+     * @param pattern  Glob pattern over full Redis keys
+     * @return Number of keys unlinked
+     */
+    private long unlinkIndexed(UUID tenantId, String pattern) {
+        String indexKey = buildTenantIndexKey(tenantId);
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build();
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        long count = 0;
+
+        try (Cursor<ZSetOperations.TypedTuple<String>> cursor = redisTemplate.opsForZSet().scan(indexKey, options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next().getValue());
+                if (batch.size() >= SCAN_BATCH_SIZE) {
+                    count += unlinkBatch(batch, tenantId);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            count += unlinkBatch(batch, tenantId);
+        }
+        return count;
+    }
+
+    /**
+     * Unlink all keys matching a pattern using SCAN, in chunks
+     *
+     * @param pattern Glob pattern over full Redis keys
+     * @return Number of keys unlinked
+     */
+    private long unlinkScanned(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build();
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        long count = 0;
+
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= SCAN_BATCH_SIZE) {
+                    count += unlinkBatch(batch, null);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            count += unlinkBatch(batch, null);
+        }
+        return count;
+    }
+
+    /**
+     * Unlink keys, settling tenant accounting when a tenant is given
+     *
+     * @param keys     Full Redis keys
+     * @param tenantId Tenant ID, or null for keys without an index
+     * @return Number of keys unlinked
+     */
+    private long unlinkBatch(List<String> keys, UUID tenantId) {
+        Long unlinked;
+        if (tenantId != null) {
+            List<String> scriptKeys = new ArrayList<>(tenantScriptKeys(tenantId));
+            scriptKeys.addAll(keys);
+            unlinked = redisTemplate.execute(TENANT_UNLINK_SCRIPT, scriptKeys);
+        } else {
+            unlinked = redisTemplate.unlink(keys);
+        }
+        return unlinked != null ? unlinked : 0;
+    }
+
+    /**
+     * Collect all keys matching a pattern using SCAN
+     *
+     * @param pattern Glob pattern over full Redis keys
+     * @return Matching keys
+     */
+    private List<String> scanKeys(String pattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build();
+        List<String> keys = new ArrayList<>();
+
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        return keys;
+    }
+
+    /**
+     * Read a raw value, trying the near cache before Redis. A value fetched from
+     * Redis is kept in the near cache no longer than its remaining Redis TTL, read
+     * with PTTL in the same pipeline as the GET.
+     *
+     * @param cacheKey   Full Redis key
+     * @param logicalKey Key as passed by the caller
+     * @return Encoded value or null if not found
+     */
+    private byte[] readThrough(String cacheKey, String logicalKey) {
+        byte[] value = nearCache.get(cacheKey, logicalKey);
+        if (value != null) {
+            return value;
+        }
+        if (!nearCache.isEnabled()) {
+            return binaryRedisTemplate.opsForValue().get(cacheKey);
+        }
+
+        List<Object> replies = binaryRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                ops.opsForValue().get(cacheKey);
+                ops.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        });
+        value = (byte[]) replies.get(0);
+        if (value != null) {
+            nearCache.put(cacheKey, logicalKey, value, remainingTtl(replies.get(1)));
+        }
+        return value;
+    }
+
+    /**
+     * Remaining TTL from a PTTL reply, zero for a key without expiry
+     */
+    static long remainingTtl(Object pttl) {
+        return pttl instanceof Long millis && millis > 0 ? millis : 0;
+    }
+
+    /**
+     * Store a freshly written value locally and invalidate it on other nodes
+     *
+     * @param cacheKey   Full Redis key
+     * @param logicalKey Key as passed by the caller
+     * @param value      Encoded value
+     * @param ttlMillis  Redis TTL, non-positive if none
+     */
+    private void writeNear(String cacheKey, String logicalKey, byte[] value, long ttlMillis) {
+        if (!nearCache.isEnabled()) {
+            return;
+        }
+        nearCache.put(cacheKey, logicalKey, value, ttlMillis);
+        publishInvalidation(NearCacheInvalidationListener.OP_KEY, cacheKey);
+    }
+
+    /**
+     * Invalidate near cache entries on this node and on all other nodes
+     *
+     * @param op  Invalidation operation
+     * @param key Redis key or key prefix
+     */
+    private void invalidateNear(char op, String key) {
+        if (!nearCache.isEnabled()) {
+            return;
+        }
+        if (op == NearCacheInvalidationListener.OP_KEY) {
+            nearCache.invalidate(key);
+        } else {
+            nearCache.invalidatePrefix(key);
+        }
+        publishInvalidation(op, key);
+    }
+
+    private void publishInvalidation(char op, String key) {
+        try {
+            redisTemplate.convertAndSend(NearCache.INVALIDATION_CHANNEL,
+                    NearCacheInvalidationListener.message(nearCache.getNodeId(), op, key));
+        } catch (Exception e) {
+            log.error("Error publishing near cache invalidation for key: {}", key, e);
+        }
+    }
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Build a tenant-specific cache key
      *
@@ -297,7 +1288,7 @@ public class RedisCacheServiceImpl implements CacheService {
      * @param tenantId Tenant ID
      * @return Tenant-specific cache key
      */
-    private String buildTenantKey(String key, UUID tenantId) {
+    static String buildTenantKey(String key, UUID tenantId) {
         return TENANT_CACHE_PREFIX + tenantId + ":" + key;
     }
 
@@ -307,7 +1298,25 @@ public class RedisCacheServiceImpl implements CacheService {
      * @param key Base key
      * @return General cache key
      */
-    private String buildGeneralKey(String key) {
+    static String buildGeneralKey(String key) {
         return GENERAL_CACHE_PREFIX + key;
     }
+
+    /**
+     * Build the key of a tenant's cache key index
+     *
+     * @param tenantId Tenant ID
+     * @return Index key
+     */
+    static String buildTenantIndexKey(UUID tenantId) {
+        return TENANT_INDEX_PREFIX + tenantId;
+    }
+
+    private static String buildTenantLruKey(UUID tenantId) {
+        return TENANT_LRU_PREFIX + tenantId;
+    }
+
+    private static String buildTenantUsageKey(UUID tenantId) {
+        return TENANT_USAGE_PREFIX + tenantId;
+    }
 }
\ No newline at end of file
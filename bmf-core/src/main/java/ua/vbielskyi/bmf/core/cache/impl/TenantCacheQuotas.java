@@ -0,0 +1,171 @@
+package ua.vbielskyi.bmf.core.cache.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.common.model.tenant.SubscriptionPlan;
+import ua.vbielskyi.bmf.core.entity.tenant.TenantEntity;
+import ua.vbielskyi.bmf.core.repository.tenant.TenantRepository;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resolves per-tenant cache quotas and keeps the tenant LRU order fresh.
+ * Quotas come from the tenant's subscription plan when one is configured for it,
+ * otherwise from the global defaults; zero means unlimited. Read recency is
+ * recorded at most once per touch interval per key, so hot keys cost one
+ * ZADD every few seconds rather than one per read.
+ */
+@Slf4j
+@Component
+public class TenantCacheQuotas {
+
+    /**
+     * Quota limits, zero for unlimited
+     */
+    public record Quota(long maxBytes, long maxKeys) {
+        static final Quota UNLIMITED = new Quota(0, 0);
+
+        boolean isLimited() {
+            return maxBytes > 0 || maxKeys > 0;
+        }
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TenantRepository tenantRepository;
+    private final Counter evictionCounter;
+
+    @Value("${bmf.cache.quota.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bmf.cache.quota.max-bytes:0}")
+    private long defaultMaxBytes;
+
+    @Value("${bmf.cache.quota.max-keys:0}")
+    private long defaultMaxKeys;
+
+    /**
+     * Plan quotas, value is "maxBytes,maxKeys".
+     * Example: bmf.cache.quota.plans={'FREE':'4194304,2000','BASIC':'16777216,10000'}
+     */
+    @Value("#{${bmf.cache.quota.plans:{:}}}")
+    private Map<String, String> planSpecs;
+
+    @Value("${bmf.cache.quota.touch-interval-ms:5000}")
+    private long touchIntervalMs;
+
+    private final Map<SubscriptionPlan, Quota> planQuotas = new EnumMap<>(SubscriptionPlan.class);
+    private Quota defaultQuota;
+    private Cache<UUID, Quota> tenantQuotas;
+    private Cache<String, Boolean> recentlyTouched;
+
+    public TenantCacheQuotas(RedisTemplate<String, String> redisTemplate, TenantRepository tenantRepository,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.tenantRepository = tenantRepository;
+        this.evictionCounter = Counter.builder("bmf.cache.quota.evictions")
+                .description("Tenant cache entries evicted to stay within quota")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        defaultQuota = new Quota(defaultMaxBytes, defaultMaxKeys);
+        planSpecs.forEach((plan, spec) -> {
+            String[] parts = spec.split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cache quota for plan '" + plan + "': " + spec
+                        + " (expected maxBytes,maxKeys)");
+            }
+            planQuotas.put(SubscriptionPlan.valueOf(plan),
+                    new Quota(Long.parseLong(parts[0].trim()), Long.parseLong(parts[1].trim())));
+        });
+
+        tenantQuotas = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+        recentlyTouched = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(touchIntervalMs))
+                .build();
+
+        if (enabled) {
+            log.info("Tenant cache quotas enabled: default {}, {} plan override(s)", defaultQuota, planQuotas.size());
+        }
+    }
+
+    /**
+     * Get the quota for a tenant
+     *
+     * @param tenantId Tenant ID
+     * @return Quota, unlimited if quotas are disabled
+     */
+    public Quota quotaFor(UUID tenantId) {
+        if (!enabled) {
+            return Quota.UNLIMITED;
+        }
+        return tenantQuotas.get(tenantId, this::resolveQuota);
+    }
+
+    /**
+     * Record a read so the key moves to the recent end of the tenant LRU order.
+     * Only existing members are updated (ZADD XX), so removed keys are not revived.
+     *
+     * @param cacheKey Full Redis key
+     * @param lruKey   Tenant LRU sorted set key
+     * @param tenantId Tenant ID
+     */
+    public void touch(String cacheKey, String lruKey, UUID tenantId) {
+        if (!enabled || recentlyTouched.getIfPresent(cacheKey) != null || !quotaFor(tenantId).isLimited()) {
+            return;
+        }
+        recentlyTouched.put(cacheKey, Boolean.TRUE);
+
+        try {
+            byte[] key = RedisCacheServiceImpl.utf8(lruKey);
+            byte[] member = RedisCacheServiceImpl.utf8(cacheKey);
+            double now = System.currentTimeMillis();
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.zSetCommands()
+                    .zAdd(key, now, member, RedisZSetCommands.ZAddArgs.ifExists()));
+        } catch (Exception e) {
+            log.warn("Error updating cache LRU for key: {}", cacheKey, e);
+        }
+    }
+
+    /**
+     * Record evictions performed while writing
+     *
+     * @param tenantId Tenant ID
+     * @param count    Number of evicted keys
+     */
+    public void recordEvictions(UUID tenantId, long count) {
+        if (count > 0) {
+            evictionCounter.increment(count);
+            log.debug("Evicted {} cache entries for tenant {} to stay within quota", count, tenantId);
+        }
+    }
+
+    private Quota resolveQuota(UUID tenantId) {
+        try {
+            return tenantRepository.findById(tenantId)
+                    .map(TenantEntity::getSubscriptionPlan)
+                    .map(plan -> planQuotas.getOrDefault(plan, defaultQuota))
+                    .orElse(defaultQuota);
+        } catch (Exception e) {
+            log.warn("Could not resolve cache quota for tenant {}, using default", tenantId, e);
+            return defaultQuota;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ua.vbielskyi.bmf.core.cache.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.core.cache.CacheService;
+import ua.vbielskyi.bmf.core.cache.CacheUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the cache usage of every tenant as gauges tagged with the tenant ID:
+ * {@code bmf.cache.tenant.bytes}, {@code bmf.cache.tenant.keys} and
+ * {@code bmf.cache.tenant.evictions}. The usage hashes are scanned periodically,
+ * and gauges of tenants whose usage is gone are removed on the next refresh.
+ * This is independent of quota enforcement.
+ */
+@Slf4j
+@Component
+public class TenantCacheUsageMetrics {
+
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheService cacheService;
+    private final MultiGauge bytesGauge;
+    private final MultiGauge keysGauge;
+    private final MultiGauge evictionsGauge;
+
+    @Value("${bmf.cache.usage.metrics.enabled:true}")
+    private boolean enabled;
+
+    public TenantCacheUsageMetrics(RedisTemplate<String, String> redisTemplate, CacheService cacheService,
+                                   MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.cacheService = cacheService;
+        this.bytesGauge = MultiGauge.builder("bmf.cache.tenant.bytes")
+                .description("Encoded bytes a tenant holds in the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.keysGauge = MultiGauge.builder("bmf.cache.tenant.keys")
+                .description("Live cache keys of a tenant")
+                .register(meterRegistry);
+        this.evictionsGauge = MultiGauge.builder("bmf.cache.tenant.evictions")
+                .description("Cache keys of a tenant evicted so far to stay within its quota")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Read every tenant's usage hash and replace the gauge values
+     */
+    @Scheduled(fixedDelayString = "${bmf.cache.usage.metrics.interval-ms:60000}",
+            initialDelayString = "${bmf.cache.usage.metrics.interval-ms:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            List<UUID> tenantIds = new ArrayList<>();
+            ScanOptions options = ScanOptions.scanOptions()
+                    .match(RedisCacheServiceImpl.TENANT_USAGE_PREFIX + "*")
+                    .count(SCAN_BATCH_SIZE)
+                    .build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                cursor.forEachRemaining(key -> tenantIds.add(
+                        UUID.fromString(key.substring(RedisCacheServiceImpl.TENANT_USAGE_PREFIX.length()))));
+            }
+
+            List<TenantUsage> usages = new ArrayList<>(tenantIds.size());
+            for (UUID tenantId : tenantIds) {
+                usages.add(new TenantUsage(tenantId, cacheService.getUsage(tenantId)));
+            }
+
+            bytesGauge.register(rows(usages, CacheUsage::bytes), true);
+            keysGauge.register(rows(usages, CacheUsage::keys), true);
+            evictionsGauge.register(rows(usages, CacheUsage::evictions), true);
+            log.debug("Refreshed cache usage metrics of {} tenant(s)", usages.size());
+        } catch (Exception e) {
+            log.warn("Error refreshing tenant cache usage metrics", e);
+        }
+    }
+
+    private static List<MultiGauge.Row<?>> rows(List<TenantUsage> usages, ToLongFunction<CacheUsage> metric) {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(usages.size());
+        for (TenantUsage usage : usages) {
+            rows.add(MultiGauge.Row.of(Tags.of("tenant", usage.tenantId().toString()),
+                    metric.applyAsLong(usage.usage())));
+        }
+        return rows;
+    }
+
+    private record TenantUsage(UUID tenantId, CacheUsage usage) {
+    }
+}
@@ -0,0 +1,72 @@
+package ua.vbielskyi.bmf.core.concurrent;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.common.context.TenantContext;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the application's executors.
+ * With {@code spring.threads.virtual.enabled} every task gets its own virtual thread,
+ * otherwise a fixed pool of platform threads is used. Either way the submitting
+ * thread's tenant is carried over to the task.
+ */
+@Slf4j
+@Component
+public class ExecutorFactory {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    @Getter
+    private boolean virtualThreads;
+
+    /**
+     * Create an executor
+     *
+     * @param name            Thread name prefix
+     * @param platformThreads Pool size used when virtual threads are disabled
+     * @return Tenant-aware executor
+     */
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        ExecutorService delegate = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(threadFactory(name))
+                : Executors.newFixedThreadPool(platformThreads, threadFactory(name));
+        log.debug("Created {} executor: {}", virtualThreads ? "virtual thread" : "platform thread", name);
+        return new TenantAwareExecutorService(delegate);
+    }
+
+    /**
+     * Bind an executor from this factory to the current thread's tenant, for tasks
+     * that are submitted later from a thread without one, such as a Redis client callback
+     *
+     * @param executor Executor created by {@link #newExecutor(String, int)}
+     * @return Executor running tasks with the tenant current at the time of this call
+     */
+    public static Executor withCurrentTenant(ExecutorService executor) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        return executor instanceof TenantAwareExecutorService tenantAware
+                ? tenantAware.forTenant(tenantId)
+                : executor;
+    }
+
+    /**
+     * Thread factory for executors that need their own queueing
+     *
+     * @param name Thread name prefix
+     * @return Virtual or platform thread factory
+     */
+    public ThreadFactory threadFactory(String name) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name + "-", 0).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, name + "-" + counter.getAndIncrement());
+    }
+}
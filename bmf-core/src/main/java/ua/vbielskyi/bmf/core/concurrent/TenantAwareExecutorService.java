@@ -0,0 +1,78 @@
+package ua.vbielskyi.bmf.core.concurrent;
+
+import ua.vbielskyi.bmf.common.context.TenantContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each task with the tenant of the thread that submitted it
+ */
+class TenantAwareExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    TenantAwareExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(command, TenantContext.getCurrentTenant());
+    }
+
+    /**
+     * Executor that runs tasks with the given tenant instead of the submitter's
+     *
+     * @param tenantId Tenant ID, null for none
+     * @return Executor bound to the tenant
+     */
+    Executor forTenant(UUID tenantId) {
+        return command -> execute(command, tenantId);
+    }
+
+    private void execute(Runnable command, UUID tenantId) {
+        delegate.execute(() -> {
+            UUID previous = TenantContext.getCurrentTenant();
+            TenantContext.setCurrentTenant(tenantId);
+            try {
+                command.run();
+            } finally {
+                if (previous != null) {
+                    TenantContext.setCurrentTenant(previous);
+                } else {
+                    TenantContext.clear();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
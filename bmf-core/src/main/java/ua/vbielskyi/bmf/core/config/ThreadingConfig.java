@@ -0,0 +1,41 @@
+package ua.vbielskyi.bmf.core.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import ua.vbielskyi.bmf.core.concurrent.BoundedDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Guards the database when request handling runs on virtual threads.
+ * Tomcat and Spring's own executors switch to virtual threads through
+ * {@code spring.threads.virtual.enabled}; application executors follow the same
+ * flag via {@link ua.vbielskyi.bmf.core.concurrent.ExecutorFactory}.
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int maxConcurrent = environment.getProperty("bmf.jdbc.max-concurrent-connections", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long acquireTimeoutMs = environment.getProperty("bmf.jdbc.acquire-timeout-ms", Long.class, 30000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!virtualThreads || maxConcurrent <= 0
+                        || !(bean instanceof DataSource dataSource) || bean instanceof BoundedDataSource) {
+                    return bean;
+                }
+                log.info("Limiting data source '{}' to {} concurrent connections", beanName, maxConcurrent);
+                return new BoundedDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+            }
+        };
+    }
+}
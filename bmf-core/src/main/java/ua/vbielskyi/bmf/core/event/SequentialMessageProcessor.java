@@ -2,12 +2,12 @@ package ua.vbielskyi.bmf.core.event;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
 
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -22,7 +22,11 @@ import java.util.function.Supplier;
 public class SequentialMessageProcessor {
 
     private final Map<String, Lock> locks = new ConcurrentHashMap<>();
-    private final ExecutorService executor = Executors.newFixedThreadPool(10);
+    private final ExecutorService executor;
+
+    public SequentialMessageProcessor(ExecutorFactory executorFactory) {
+        this.executor = executorFactory.newExecutor("bmf-sequential", 10);
+    }
 
     public <T> T process(String entityType, UUID entityId, Supplier<T> processor) {
         String lockKey = entityType + ":" + entityId;
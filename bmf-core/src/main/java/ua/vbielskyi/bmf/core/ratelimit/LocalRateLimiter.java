@@ -0,0 +1,75 @@
+package ua.vbielskyi.bmf.core.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets.
+ * A bucket is a single "theoretical arrival time" (the moment it will be full
+ * again) updated with CAS, so acquiring is lock-free. A bucket that has refilled
+ * completely carries no state, which lets idle buckets expire without changing
+ * any outcome; the bucket count is also capped.
+ */
+@Component
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, Bucket> buckets;
+
+    public LocalRateLimiter(@Value("${bmf.rate-limit.local.maximum-size:100000}") long maximumSize) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, Bucket bucket, long currentTime) {
+                        return bucket.periodNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Bucket bucket, long currentTime,
+                                                  long currentDuration) {
+                        return bucket.periodNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Bucket bucket, long currentTime,
+                                                long currentDuration) {
+                        return bucket.periodNanos;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimit limit) {
+        return buckets.get(key, k -> new Bucket(limit.period().toNanos())).tryAcquire(limit, System.nanoTime());
+    }
+
+    private static final class Bucket {
+        private final long periodNanos;
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+        private Bucket(long periodNanos) {
+            this.periodNanos = periodNanos;
+        }
+
+        boolean tryAcquire(RateLimit limit, long now) {
+            long interval = limit.intervalNanos();
+            long burst = limit.period().toNanos();
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval;
+                if (next - now > burst) {
+                    return false;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ua.vbielskyi.bmf.core.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Token bucket limit: up to {@code capacity} requests per {@code period},
+ * refilled continuously, so a full bucket allows a burst of {@code capacity}.
+ *
+ * @param capacity Bucket size
+ * @param period   Time to refill an empty bucket
+ */
+public record RateLimit(int capacity, Duration period) {
+
+    public RateLimit {
+        if (capacity <= 0 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+        }
+    }
+
+    /**
+     * Parse a "requests,seconds" spec, e.g. "60,60" for 60 requests per minute
+     *
+     * @param spec Limit spec
+     * @return Rate limit
+     */
+    public static RateLimit parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid rate limit spec: " + spec + " (expected requests,seconds)");
+        }
+        return new RateLimit(Integer.parseInt(parts[0].trim()), Duration.ofSeconds(Long.parseLong(parts[1].trim())));
+    }
+
+    /**
+     * Time one token takes to refill
+     *
+     * @return Emission interval in nanoseconds
+     */
+    public long intervalNanos() {
+        return period.toNanos() / capacity;
+    }
+}
@@ -0,0 +1,16 @@
+package ua.vbielskyi.bmf.core.ratelimit;
+
+/**
+ * Rate limiter keyed by an arbitrary string
+ */
+public interface RateLimiter {
+
+    /**
+     * Take one token from the bucket for a key
+     *
+     * @param key   Bucket key
+     * @param limit Limit applied to the bucket
+     * @return true if the request is allowed
+     */
+    boolean tryAcquire(String key, RateLimit limit);
+}
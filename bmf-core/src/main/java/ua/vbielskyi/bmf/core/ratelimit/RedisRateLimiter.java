@@ -0,0 +1,111 @@
+package ua.vbielskyi.bmf.core.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cluster-wide rate limiter using GCRA in a Redis Lua script.
+ * The script reads the Redis clock, so all nodes share one timeline. Two local
+ * steps keep most requests off Redis: the node's own bucket rejects requests
+ * that exceed the limit on this node alone, and allowed tokens are taken from
+ * Redis in small leases that are spent locally before the next round trip.
+ * If Redis is unavailable, the local decision stands.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "bmf.rate-limit.mode", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final String KEY_PREFIX = "bmf:rate-limit:";
+
+    /**
+     * KEYS[1] bucket; ARGV interval and burst in microseconds, tokens wanted.
+     * Stores the theoretical arrival time and returns how many tokens were granted.
+     */
+    private static final RedisScript<Long> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local wanted = tonumber(ARGV[3])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat < now then tat = now end
+            local granted = math.min(wanted, math.floor((burst - (tat - now)) / interval))
+            if granted < 1 then return 0 end
+            tat = tat + granted * interval
+            redis.call('SET', KEYS[1], string.format('%.0f', tat), 'PX', math.ceil((tat - now) / 1000) + 1)
+            return granted
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final LocalRateLimiter localRateLimiter;
+    private final int leaseSize;
+    private final Cache<String, AtomicInteger> leases;
+
+    public RedisRateLimiter(RedisTemplate<String, String> redisTemplate,
+                            LocalRateLimiter localRateLimiter,
+                            @Value("${bmf.rate-limit.redis.lease-size:5}") int leaseSize,
+                            @Value("${bmf.rate-limit.redis.lease-ttl-ms:1000}") long leaseTtlMs) {
+        this.redisTemplate = redisTemplate;
+        this.localRateLimiter = localRateLimiter;
+        this.leaseSize = Math.max(1, leaseSize);
+        // Unused leased tokens are given up after a short while rather than hoarded
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(leaseTtlMs))
+                .build();
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimit limit) {
+        // Over the limit on this node alone means over the limit everywhere
+        if (!localRateLimiter.tryAcquire(key, limit)) {
+            return false;
+        }
+
+        AtomicInteger lease = leases.getIfPresent(key);
+        if (lease != null && lease.getAndUpdate(tokens -> tokens > 0 ? tokens - 1 : 0) > 0) {
+            return true;
+        }
+
+        try {
+            Long granted = redisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toMicros(limit.intervalNanos()))),
+                    String.valueOf(TimeUnit.NANOSECONDS.toMicros(limit.period().toNanos())),
+                    // A lease never exceeds the bucket, so small limits stay accurate across nodes
+                    String.valueOf(Math.min(leaseSize, limit.capacity())));
+            if (granted == null || granted < 1) {
+                return false;
+            }
+            if (granted > 1) {
+                // Other threads may have topped up the lease meanwhile, add to what they left
+                int extra = (int) (granted - 1);
+                leases.asMap().compute(key, (k, tokens) -> {
+                    if (tokens == null) {
+                        return new AtomicInteger(extra);
+                    }
+                    tokens.addAndGet(extra);
+                    return tokens;
+                });
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Redis rate limiter unavailable, using the local decision for {}: {}", key, e.getMessage());
+            return true;
+        }
+    }
+}
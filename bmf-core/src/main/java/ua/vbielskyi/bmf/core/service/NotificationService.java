@@ -1,21 +1,27 @@
 package ua.vbielskyi.bmf.core.service;
 
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ua.vbielskyi.bmf.core.cache.CacheService;
 import ua.vbielskyi.bmf.core.entity.notification.NotificationHistoryEntity;
-import ua.vbielskyi.bmf.core.entity.notification.NotificationTemplateEntity;
 import ua.vbielskyi.bmf.core.entity.order.OrderEntity;
 import ua.vbielskyi.bmf.core.repository.notification.NotificationHistoryRepository;
 import ua.vbielskyi.bmf.core.repository.notification.NotificationTemplateRepository;
 import ua.vbielskyi.bmf.core.service.notification.EmailNotificationProvider;
 import ua.vbielskyi.bmf.core.service.notification.SmsNotificationProvider;
 import ua.vbielskyi.bmf.core.service.notification.TelegramNotificationProvider;
+import ua.vbielskyi.bmf.core.telegram.service.OutboundScheduler;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -27,6 +33,11 @@ public class NotificationService {
     private final TelegramNotificationProvider telegramNotificationProvider;
     private final EmailNotificationProvider emailNotificationProvider;
     private final SmsNotificationProvider smsNotificationProvider;
+    private final CacheService cacheService;
+
+    private static final String TEMPLATE_CACHE_KEY_PREFIX = "notification:template:";
+    private static final long TEMPLATE_CACHE_MINUTES = 10;
+    private static final long MISSING_TEMPLATE_CACHE_MINUTES = 1;
 
     // Notification types
     public static final String NOTIFICATION_ORDER_CONFIRMATION = "order_confirmation";
@@ -283,9 +294,7 @@ public class NotificationService {
                                   Map<String, Object> templateData, UUID orderId) {
         try {
             // Get template for this notification type
-            NotificationTemplateEntity template = notificationTemplateRepository
-                    .findByTenantIdAndTypeAndActiveTrue(tenantId, notificationType)
-                    .orElse(null);
+            CachedTemplate template = findActiveTemplate(tenantId, notificationType).orElse(null);
 
             if (template == null) {
                 log.warn("No active template found for notification type: {}, tenant: {}",
@@ -309,9 +318,12 @@ public class NotificationService {
 
             history = notificationHistoryRepository.save(history);
 
-            // Send notification via Telegram bot
+            // Queue notification in the Telegram outbox, keyed by the history record
             boolean sent = telegramNotificationProvider.sendNotification(
-                    tenantId, telegramId, messageContent);
+                    tenantId, telegramId, messageContent, history.getId().toString(),
+                    isMarketing(notificationType)
+                            ? OutboundScheduler.Priority.MARKETING
+                            : OutboundScheduler.Priority.TRANSACTIONAL);
 
             // Update notification history
             if (sent) {
@@ -328,6 +340,35 @@ public class NotificationService {
         }
     }
 
+    private static boolean isMarketing(String notificationType) {
+        return NOTIFICATION_MARKETING.equals(notificationType) || NOTIFICATION_PROMOTIONAL.equals(notificationType);
+    }
+
+    /**
+     * Find the active template for a notification type. Missing templates are cached
+     * briefly so that notification types a tenant has not configured do not query
+     * the database on every event. Templates are not written by the application, so a
+     * template changed in the database is picked up once its cached lookup expires.
+     */
+    private Optional<CachedTemplate> findActiveTemplate(UUID tenantId, String notificationType) {
+        return cacheService.getOrElseComputeOptional(TEMPLATE_CACHE_KEY_PREFIX + notificationType,
+                CachedTemplate.class,
+                () -> notificationTemplateRepository.findByTenantIdAndTypeAndActiveTrue(tenantId, notificationType)
+                        .map(entity -> new CachedTemplate(entity.getId(), entity.getMessageTemplate())),
+                TEMPLATE_CACHE_MINUTES, MISSING_TEMPLATE_CACHE_MINUTES, TimeUnit.MINUTES, tenantId);
+    }
+
+    /**
+     * Template fields needed to send a notification
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CachedTemplate {
+        private UUID id;
+        private String messageTemplate;
+    }
+
     /**
      * Process template with variables
      */
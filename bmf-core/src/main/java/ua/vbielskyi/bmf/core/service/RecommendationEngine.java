@@ -3,6 +3,7 @@ package ua.vbielskyi.bmf.core.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ua.vbielskyi.bmf.core.cache.CacheService;
 import ua.vbielskyi.bmf.core.entity.analytics.CustomerAnalyticsEntity;
 import ua.vbielskyi.bmf.core.entity.order.OrderEntity;
 import ua.vbielskyi.bmf.core.entity.order.OrderItemEntity;
@@ -14,6 +15,7 @@ import ua.vbielskyi.bmf.core.repository.product.ProductRepository;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -25,6 +27,12 @@ public class RecommendationEngine {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
+    private final CacheService cacheService;
+
+    private static final String POPULAR_PRODUCTS_KEY = "recommendations:popular";
+    private static final int POPULAR_PRODUCTS_RANK_SIZE = 100;
+    private static final long POPULAR_PRODUCTS_SOFT_TTL_MINUTES = 15;
+    private static final long POPULAR_PRODUCTS_HARD_TTL_MINUTES = 120;
 
     /**
      * Get personalized recommendations for a customer
@@ -123,12 +131,20 @@ public class RecommendationEngine {
      * Get popular products based on order history
      */
     public List<ProductEntity> getPopularProducts(UUID tenantId, int limit) {
-        // Get recent orders
-        LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-        List<OrderEntity> recentOrders = orderRepository
-                .findAllByTenantIdAndDateRangeAndDeletedFalse(tenantId, oneMonthAgo, LocalDateTime.now());
-
-        if (recentOrders.isEmpty()) {
+        // Ranking walks every recent order, so it is served stale and refreshed in the background.
+        // Only the top POPULAR_PRODUCTS_RANK_SIZE are cached, longer lists are ranked on every call.
+        UUID[] rankedProductIds = limit > POPULAR_PRODUCTS_RANK_SIZE
+                ? rankPopularProductIds(tenantId, limit)
+                : cacheService.getOrElseComputeWithRefresh(
+                        POPULAR_PRODUCTS_KEY,
+                        UUID[].class,
+                        () -> rankPopularProductIds(tenantId, POPULAR_PRODUCTS_RANK_SIZE),
+                        POPULAR_PRODUCTS_SOFT_TTL_MINUTES,
+                        POPULAR_PRODUCTS_HARD_TTL_MINUTES,
+                        TimeUnit.MINUTES,
+                        tenantId);
+
+        if (rankedProductIds == null || rankedProductIds.length == 0) {
             // No recent orders, return featured products
             return productRepository.findAllByTenantIdAndFeaturedTrueAndActiveTrue(tenantId)
                     .stream()
@@ -136,29 +152,11 @@ public class RecommendationEngine {
                     .collect(Collectors.toList());
         }
 
-        // Count product occurrences in orders
-        Map<UUID, Integer> productCounts = new HashMap<>();
-
-        for (OrderEntity order : recentOrders) {
-            List<OrderItemEntity> items = orderItemRepository.findAllByOrderId(order.getId());
-
-            for (OrderItemEntity item : items) {
-                productCounts.merge(item.getProductId(), item.getQuantity(), Integer::sum);
-            }
-        }
-
-        // Sort products by popularity
-        List<Map.Entry<UUID, Integer>> sortedProducts = productCounts.entrySet()
-                .stream()
-                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
-
         // Get product entities
         List<ProductEntity> result = new ArrayList<>();
 
-        for (Map.Entry<UUID, Integer> entry : sortedProducts) {
-            ProductEntity product = productRepository.findById(entry.getKey()).orElse(null);
+        for (UUID productId : Arrays.asList(rankedProductIds).subList(0, Math.min(limit, rankedProductIds.length))) {
+            ProductEntity product = productRepository.findById(productId).orElse(null);
 
             if (product != null && product.isActive()) {
                 result.add(product);
@@ -184,6 +182,34 @@ public class RecommendationEngine {
         return result;
     }
 
+    /**
+     * Rank product IDs by quantity ordered during the last month
+     */
+    private UUID[] rankPopularProductIds(UUID tenantId, int size) {
+        LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
+        List<OrderEntity> recentOrders = orderRepository
+                .findAllByTenantIdAndDateRangeAndDeletedFalse(tenantId, oneMonthAgo, LocalDateTime.now());
+
+        // Count product occurrences in orders
+        Map<UUID, Integer> productCounts = new HashMap<>();
+
+        for (OrderEntity order : recentOrders) {
+            List<OrderItemEntity> items = orderItemRepository.findAllByOrderId(order.getId());
+
+            for (OrderItemEntity item : items) {
+                productCounts.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+
+        // Sort products by popularity
+        return productCounts.entrySet()
+                .stream()
+                .sorted(Map.Entry.<UUID, Integer>comparingByValue().reversed())
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .toArray(UUID[]::new);
+    }
+
     /**
      * Get recommendations by category, excluding already purchased products
      */
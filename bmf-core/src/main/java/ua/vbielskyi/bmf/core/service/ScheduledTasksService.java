@@ -8,6 +8,7 @@ import ua.vbielskyi.bmf.core.entity.bot.TelegramSessionEntity;
 import ua.vbielskyi.bmf.core.entity.tenant.TenantEntity;
 import ua.vbielskyi.bmf.core.repository.bot.TelegramSessionRepository;
 import ua.vbielskyi.bmf.core.repository.tenant.TenantRepository;
+import ua.vbielskyi.bmf.core.tenant.TenantStatusCache;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,6 +22,7 @@ public class ScheduledTasksService {
     private final TelegramSessionRepository telegramSessionRepository;
     private final TenantRepository tenantRepository;
     private final SalesAnalyticsService salesAnalyticsService;
+    private final TenantStatusCache tenantStatusCache;
 
     /**
      * Clean up old Telegram sessions (daily at 3 AM)
@@ -101,6 +103,7 @@ public class ScheduledTasksService {
                     // Subscription expired
                     tenant.setActive(false);
                     tenantRepository.save(tenant);
+                    tenantStatusCache.evict(tenant.getId());
                     expiredCount++;
 
                     log.info("Deactivated tenant with expired subscription: {}", tenant.getId());
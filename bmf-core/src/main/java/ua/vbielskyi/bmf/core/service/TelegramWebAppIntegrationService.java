@@ -22,6 +22,8 @@ import ua.vbielskyi.bmf.core.repository.tenant.TenantRepository;
 import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
 import ua.vbielskyi.bmf.core.telegram.service.BotExecutor;
+import ua.vbielskyi.bmf.core.telegram.service.OutboundOutbox;
+import ua.vbielskyi.bmf.core.telegram.service.OutboundScheduler;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -38,6 +40,7 @@ public class TelegramWebAppIntegrationService {
     private final CustomerRepository customerRepository;
     private final TenantRepository tenantRepository;
     private final BotExecutor botExecutor;
+    private final OutboundOutbox outboundOutbox;
     private final WebAppIntegrationService webAppIntegrationService;
 
     @Value("${telegram.payment.provider-token}")
@@ -84,7 +87,8 @@ public class TelegramWebAppIntegrationService {
                     .method(message)
                     .build();
 
-            botExecutor.executeAsync(response, BotType.TENANT, tenantId);
+            outboundOutbox.enqueue(response, BotType.TENANT, tenantId,
+                    OutboundScheduler.Priority.TRANSACTIONAL, "webapp-button:" + UUID.randomUUID());
 
             log.info("Sent WebApp button to chat {}, tenant {}", chatId, tenantId);
         } catch (Exception e) {
@@ -152,7 +156,8 @@ public class TelegramWebAppIntegrationService {
                     .method(invoice)
                     .build();
 
-            botExecutor.executeAsync(response, BotType.TENANT, tenantId);
+            outboundOutbox.enqueue(response, BotType.TENANT, tenantId,
+                    OutboundScheduler.Priority.TRANSACTIONAL, "invoice:" + order.getId());
 
             log.info("Sent invoice for order {} to chat {}, tenant {}",
                     order.getId(), chatId, tenantId);
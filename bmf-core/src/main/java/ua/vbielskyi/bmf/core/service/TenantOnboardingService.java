@@ -21,6 +21,7 @@ import ua.vbielskyi.bmf.core.repository.tenant.TenantRepository;
 import ua.vbielskyi.bmf.core.repository.tenant.TenantSettingsRepository;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
 import ua.vbielskyi.bmf.core.telegram.service.BotRegistrationService;
+import ua.vbielskyi.bmf.core.tenant.TenantStatusCache;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -37,6 +38,7 @@ public class TenantOnboardingService {
     private final BotSettingsRepository botSettingsRepository;
     private final WebAppSettingsRepository webAppSettingsRepository;
     private final BotRegistrationService botRegistrationService;
+    private final TenantStatusCache tenantStatusCache;
 
     /**
      * Create a new tenant with default settings
@@ -70,6 +72,7 @@ public class TenantOnboardingService {
         // Save tenant
         TenantEntity savedTenant = tenantRepository.save(tenant);
         UUID tenantId = savedTenant.getId();
+        tenantStatusCache.evict(tenantId);
 
         // Create tenant owner
         TenantOwnerEntity owner = new TenantOwnerEntity();
@@ -202,6 +205,7 @@ public class TenantOnboardingService {
         tenant.setActive(false);
         tenant.setUpdatedAt(LocalDateTime.now());
         tenantRepository.save(tenant);
+        tenantStatusCache.evict(tenantId);
 
         log.info("Suspended tenant: {}, reason: {}", tenantId, reason);
     }
@@ -217,6 +221,7 @@ public class TenantOnboardingService {
         tenant.setActive(true);
         tenant.setUpdatedAt(LocalDateTime.now());
         tenantRepository.save(tenant);
+        tenantStatusCache.evict(tenantId);
 
         log.info("Activated tenant: {}", tenantId);
     }
@@ -4,8 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
-import ua.vbielskyi.bmf.core.telegram.service.BotExecutor;
+import ua.vbielskyi.bmf.core.telegram.service.OutboundOutbox;
+import ua.vbielskyi.bmf.core.telegram.service.OutboundScheduler;
 import ua.vbielskyi.bmf.core.telegram.service.impl.CachedBotRegistry;
 
 import java.util.Map;
@@ -19,35 +23,49 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TelegramNotificationProvider implements NotificationProvider {
 
-    private final BotExecutor botExecutor;
+    private final OutboundOutbox outboundOutbox;
     private final CachedBotRegistry botRegistry;
 
     /**
      * Send notification via Telegram bot
      */
     public boolean sendNotification(UUID tenantId, Long chatId, String message) {
+        return sendNotification(tenantId, chatId, message, UUID.randomUUID().toString(),
+                OutboundScheduler.Priority.TRANSACTIONAL);
+    }
+
+    /**
+     * Queue a notification in the outbox, which sends it even if this node goes down first
+     *
+     * @param tenantId Tenant ID
+     * @param chatId Telegram chat ID
+     * @param message Message content
+     * @param idempotencyKey Key identifying the notification, so a redelivery is not sent twice
+     * @param priority Send priority
+     * @return true if the notification was queued
+     */
+    public boolean sendNotification(UUID tenantId, Long chatId, String message, String idempotencyKey,
+                                    OutboundScheduler.Priority priority) {
         try {
-//            // Verify bot is registered and active
-//            CachedBotRegistry.BotConfig config = botRegistry.getBotConfig(BotType.TENANT, tenantId);
-//            if (config == null || !config.isActive()) {
-//                log.error("No active bot configuration found for tenant: {}", tenantId);
-//                return false;
-//            }
-//
-//            // Create message
-//            SendMessage sendMessage = SendMessage.builder()
-//                    .chatId(chatId.toString())
-//                    .text(message)
-//                    .parseMode("HTML")
-//                    .disableWebPagePreview(true)
-//                    .build();
-//
-//            // Execute message
-//            botExecutor.executeAsync(
-//                    org.telegram.telegrambots.meta.api.methods.BotApiMethod.().build(),
-//                    BotType.TENANT, tenantId);
-//
-//            log.debug("Sent Telegram notification to {} for tenant {}", chatId, tenantId);
+            // Verify bot is registered and active
+            CachedBotRegistry.BotConfig config = botRegistry.getBotConfig(BotType.TENANT, tenantId);
+            if (config == null || !config.isActive()) {
+                log.error("No active bot configuration found for tenant: {}", tenantId);
+                return false;
+            }
+
+            // Create message
+            SendMessage sendMessage = SendMessage.builder()
+                    .chatId(chatId.toString())
+                    .text(message)
+                    .parseMode("HTML")
+                    .disableWebPagePreview(true)
+                    .build();
+
+            outboundOutbox.enqueue(BotResponse.builder().method(sendMessage).build(),
+                    BotType.TENANT, tenantId, priority, "notification:" + idempotencyKey);
+
+            log.debug("Queued Telegram notification to {} for tenant {}", chatId, tenantId);
             return true;
         } catch (Exception e) {
             log.error("Error sending Telegram notification to {} for tenant {}", chatId, tenantId, e);
@@ -59,9 +77,23 @@ public class TelegramNotificationProvider implements NotificationProvider {
      * Send notification with image
      */
     public boolean sendNotificationWithImage(UUID tenantId, Long chatId, String message, String imageUrl) {
-        // Implementation for sending message with image
-        // Would use SendPhoto instead of SendMessage
-        return false;
+        try {
+            // Sent by URL, BotExecutor swaps in the file_id once the bot has sent the image
+            SendPhoto sendPhoto = SendPhoto.builder()
+                    .chatId(chatId.toString())
+                    .photo(new InputFile(imageUrl))
+                    .caption(message)
+                    .parseMode("HTML")
+                    .build();
+
+            outboundOutbox.enqueue(BotResponse.builder().build().addMethod(sendPhoto),
+                    BotType.TENANT, tenantId, OutboundScheduler.Priority.TRANSACTIONAL,
+                    "notification:" + UUID.randomUUID());
+            return true;
+        } catch (Exception e) {
+            log.error("Error sending Telegram image notification to {} for tenant {}", chatId, tenantId, e);
+            return false;
+        }
     }
 
     /**
@@ -16,6 +16,14 @@ public interface BotRegistry {
      */
     void registerHandler(BotHandler handler);
 
+    /**
+     * Register a handler that serves one tenant instead of the default handler for its bot type
+     *
+     * @param handler The handler to register
+     * @param tenantId Tenant the handler is dedicated to
+     */
+    void registerHandler(BotHandler handler, UUID tenantId);
+
     /**
      * Find a handler that can handle updates for this bot type and tenant
      *
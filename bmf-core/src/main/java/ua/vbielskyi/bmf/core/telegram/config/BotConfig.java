@@ -1,20 +1,32 @@
 package ua.vbielskyi.bmf.core.telegram.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class BotConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(@Value("${bot.api.connect-timeout-ms:5000}") long connectTimeoutMs,
+                                     @Value("${bot.api.request-timeout-ms:10000}") long readTimeoutMs) {
+        // One pooled client with keep-alive instead of a new connection per request
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
     }
 
     @Bean
     public ObjectMapper objectMapper() {
         return new ObjectMapper();
     }
-}
\ No newline at end of file
+}
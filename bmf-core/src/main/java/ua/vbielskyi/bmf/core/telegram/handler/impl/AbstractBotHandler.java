@@ -16,13 +16,12 @@ import ua.vbielskyi.bmf.core.telegram.handler.WebAppDataHandler;
 import ua.vbielskyi.bmf.core.telegram.model.BotMessage;
 import ua.vbielskyi.bmf.core.telegram.model.BotMessageType;
 import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
+import ua.vbielskyi.bmf.core.telegram.service.UserRateLimiter;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Abstract base implementation of BotHandler with improved error handling
@@ -34,33 +33,28 @@ public abstract class AbstractBotHandler implements BotHandler {
     // Command handlers
     private final Map<String, CommandHandler> commandHandlers = new HashMap<>();
 
-    // Callback query handlers
-    private final Map<String, CallbackQueryHandler> callbackHandlers = new HashMap<>();
+    // Callback query handlers, by longest matching prefix
+    private final CallbackRouter callbackRouter;
 
     // WebApp data handlers
     private final List<WebAppDataHandler> webAppHandlers;
 
-    // Simple rate limiting
-    private final Map<Long, AtomicInteger> requestCounters = new ConcurrentHashMap<>();
-    private final Map<Long, Long> requestTimestamps = new ConcurrentHashMap<>();
-
-    private static final int MAX_REQUESTS_PER_MINUTE = 60;
-    private static final long ONE_MINUTE_MS = 60 * 1000;
+    private final UserRateLimiter rateLimiter;
 
     protected AbstractBotHandler(List<CommandHandler> commandHandlers,
                                  List<CallbackQueryHandler> callbackHandlers,
-                                 List<WebAppDataHandler> webAppHandlers) {
+                                 List<WebAppDataHandler> webAppHandlers,
+                                 UserRateLimiter rateLimiter) {
         // Register command handlers
         for (CommandHandler handler : commandHandlers) {
             this.commandHandlers.put(handler.getCommand(), handler);
         }
 
         // Register callback handlers
-        for (CallbackQueryHandler handler : callbackHandlers) {
-            this.callbackHandlers.put(handler.getCallbackPrefix(), handler);
-        }
+        this.callbackRouter = new CallbackRouter(callbackHandlers);
 
         this.webAppHandlers = webAppHandlers;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -75,7 +69,7 @@ public abstract class AbstractBotHandler implements BotHandler {
             Long userId = extractUserId(update);
 
             // Apply rate limiting
-            if (userId != null && !checkRateLimit(userId)) {
+            if (!rateLimiter.tryAcquire(tenantId, userId, update)) {
                 log.warn("Rate limit exceeded for user: {}", userId);
                 return createRateLimitResponse(extractChatId(update));
             }
@@ -181,20 +175,20 @@ public abstract class AbstractBotHandler implements BotHandler {
         }
 
         // Find the appropriate handler based on the callback prefix
-        for (Map.Entry<String, CallbackQueryHandler> entry : callbackHandlers.entrySet()) {
-            if (callbackData.startsWith(entry.getKey())) {
-                try {
-                    return entry.getValue().handle(message);
-                } catch (Exception e) {
-                    log.error("Error handling callback query '{}': {}", callbackData, e.getMessage(), e);
-                    return BotResponse.text(message.getChatId(),
-                            "Sorry, there was an error processing your request. Please try again later.");
-                }
-            }
+        CallbackRouter.Route route = callbackRouter.route(callbackData);
+        if (route == null) {
+            log.warn("No handler found for callback data: {}", callbackData);
+            return BotResponse.text(message.getChatId(), "Sorry, I couldn't process this action. Please try again.");
         }
 
-        log.warn("No handler found for callback data: {}", callbackData);
-        return BotResponse.text(message.getChatId(), "Sorry, I couldn't process this action. Please try again.");
+        message.setCallback(route.callback());
+        try {
+            return route.handler().handle(message);
+        } catch (Exception e) {
+            log.error("Error handling callback query '{}': {}", callbackData, e.getMessage(), e);
+            return BotResponse.text(message.getChatId(),
+                    "Sorry, there was an error processing your request. Please try again later.");
+        }
     }
 
     /**
@@ -287,30 +281,4 @@ public abstract class AbstractBotHandler implements BotHandler {
         }
         return null;
     }
-
-    /**
-     * Check rate limit for a user
-     *
-     * @return true if within limit, false if exceeded
-     */
-    private boolean checkRateLimit(Long userId) {
-        long currentTime = System.currentTimeMillis();
-
-        // Reset counter if it's been more than a minute
-        Long lastRequestTime = requestTimestamps.get(userId);
-        if (lastRequestTime == null || currentTime - lastRequestTime > ONE_MINUTE_MS) {
-            requestCounters.put(userId, new AtomicInteger(1));
-            requestTimestamps.put(userId, currentTime);
-            return true;
-        }
-
-        // Increment counter and check limit
-        AtomicInteger counter = requestCounters.computeIfAbsent(userId, k -> new AtomicInteger(0));
-        int count = counter.incrementAndGet();
-
-        // Update timestamp
-        requestTimestamps.put(userId, currentTime);
-
-        return count <= MAX_REQUESTS_PER_MINUTE;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package ua.vbielskyi.bmf.core.telegram.handler.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import ua.vbielskyi.bmf.core.telegram.handler.CallbackQueryHandler;
+import ua.vbielskyi.bmf.core.telegram.model.CallbackData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes callback data to the handler with the longest matching prefix.
+ * The prefixes are compiled into a trie once, so a lookup walks the data a
+ * single time whatever the number of handlers, and overlapping prefixes such as
+ * "shop_" and "shop_edit_" always resolve to the more specific one.
+ */
+@Slf4j
+final class CallbackRouter {
+
+    /**
+     * Handler selected for a callback, with its parsed data
+     */
+    record Route(CallbackQueryHandler handler, CallbackData callback) {
+    }
+
+    private final Node root = new Node();
+
+    CallbackRouter(List<CallbackQueryHandler> handlers) {
+        for (CallbackQueryHandler handler : handlers) {
+            String prefix = handler.getCallbackPrefix();
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            if (node.handler != null) {
+                log.warn("Callback prefix '{}' is registered by both {} and {}, using the latter", prefix,
+                        node.handler.getClass().getSimpleName(), handler.getClass().getSimpleName());
+            }
+            node.handler = handler;
+            node.prefix = prefix;
+        }
+    }
+
+    /**
+     * Find the handler for callback data
+     *
+     * @param data Callback data
+     * @return Route, or null if no prefix matches
+     */
+    Route route(String data) {
+        Node match = root.handler != null ? root : null;
+        Node node = root;
+        for (int i = 0; i < data.length(); i++) {
+            node = node.children.get(data.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.handler != null) {
+                match = node;
+            }
+        }
+        return match == null ? null : new Route(match.handler, new CallbackData(data, match.prefix));
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private CallbackQueryHandler handler;
+        private String prefix;
+    }
+}
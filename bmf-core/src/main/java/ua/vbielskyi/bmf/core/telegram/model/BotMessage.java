@@ -59,6 +59,11 @@ public class BotMessage {
      */
     private String callbackData;
 
+    /**
+     * Callback data parsed for the handler it was routed to (if message is a callback query)
+     */
+    private CallbackData callback;
+
     /**
      * WebApp data (if message contains WebApp data)
      */
@@ -0,0 +1,67 @@
+package ua.vbielskyi.bmf.core.telegram.model;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Callback query data split into the handler prefix and its payload.
+ * Built once when the callback is routed, so handlers read the payload
+ * instead of cutting up the raw string themselves.
+ */
+@Getter
+public final class CallbackData {
+
+    /**
+     * Separator between fields of a payload with several values, e.g. "qty_" + productId + ":" + delta
+     */
+    public static final String FIELD_SEPARATOR = ":";
+
+    /**
+     * Raw callback data
+     */
+    private final String data;
+
+    /**
+     * Prefix of the handler it was routed to
+     */
+    private final String prefix;
+
+    /**
+     * Everything after the prefix
+     */
+    private final String payload;
+
+    /**
+     * Payload split on {@link #FIELD_SEPARATOR}
+     */
+    private final List<String> fields;
+
+    public CallbackData(String data, String prefix) {
+        this.data = data;
+        this.prefix = prefix;
+        this.payload = data.substring(prefix.length());
+        this.fields = payload.isEmpty() ? List.of() : List.of(payload.split(FIELD_SEPARATOR, -1));
+    }
+
+    /**
+     * Get a payload field
+     *
+     * @param index Field index
+     * @return Field value, or null if the payload has fewer fields
+     */
+    public String field(int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    /**
+     * Get the payload as a UUID
+     *
+     * @return Payload UUID
+     * @throws IllegalArgumentException If the payload is not a UUID
+     */
+    public UUID payloadAsUuid() {
+        return UUID.fromString(payload);
+    }
+}
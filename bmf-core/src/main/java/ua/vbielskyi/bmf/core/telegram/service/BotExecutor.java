@@ -1,30 +1,46 @@
 package ua.vbielskyi.bmf.core.telegram.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
 import org.telegram.telegrambots.meta.api.methods.send.*;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.media.InputMedia;
+import org.telegram.telegrambots.meta.api.objects.media.InputMediaPhoto;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
 import ua.vbielskyi.bmf.core.telegram.service.impl.CachedBotRegistry;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service for executing bot responses
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class BotExecutor {
 
     private final CachedBotRegistry botRegistry;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(10);
+    private final OutboundScheduler outboundScheduler;
+    private final TelegramApiClient telegramApiClient;
+    private final TelegramMediaCache mediaCache;
+
+    public BotExecutor(CachedBotRegistry botRegistry, OutboundScheduler outboundScheduler,
+                       TelegramApiClient telegramApiClient, TelegramMediaCache mediaCache) {
+        this.botRegistry = botRegistry;
+        this.outboundScheduler = outboundScheduler;
+        this.telegramApiClient = telegramApiClient;
+        this.mediaCache = mediaCache;
+    }
 
     /**
      * Execute a BotResponse asynchronously
@@ -32,42 +48,110 @@ public class BotExecutor {
      * @param response Bot response to execute
      * @param botType Bot type
      * @param tenantId Tenant ID (null for admin bot)
+     * @return Future completed once every call has been sent
      */
-    public void executeAsync(BotResponse response, BotType botType, UUID tenantId) {
-        executorService.submit(() -> {
-            try {
-                execute(response, botType, tenantId);
-            } catch (Exception e) {
+    public CompletableFuture<Void> executeAsync(BotResponse response, BotType botType, UUID tenantId) {
+        return executeAsync(response, botType, tenantId, OutboundScheduler.Priority.TRANSACTIONAL);
+    }
+
+    /**
+     * Execute a BotResponse asynchronously with the given send priority,
+     * e.g. {@link OutboundScheduler.Priority#MARKETING} for campaign fan-out
+     *
+     * @param response Bot response to execute
+     * @param botType Bot type
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param priority Send priority
+     * @return Future completed once every call has been sent
+     */
+    public CompletableFuture<Void> executeAsync(BotResponse response, BotType botType, UUID tenantId,
+                                               OutboundScheduler.Priority priority) {
+        CachedBotRegistry.BotConfig config = botRegistry.getBotConfig(botType, tenantId);
+        if (config == null) {
+            log.error("No bot configuration found for botType: {}, tenantId: {}", botType, tenantId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<Void>> sends = submit(response, config.getToken(), tenantId, priority);
+        return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).whenComplete((ignored, e) -> {
+            if (e != null) {
                 log.error("Error executing bot response for tenant {}", tenantId, e);
             }
         });
     }
 
     /**
-     * Execute a BotResponse
+     * Execute a BotResponse and wait until every call has been sent
      *
      * @param response Bot response to execute
      * @param botType Bot type
      * @param tenantId Tenant ID (null for admin bot)
-     * @throws TelegramApiException If execution fails
+     * @throws TelegramApiException If the bot has no configuration or execution fails
      */
     public void execute(BotResponse response, BotType botType, UUID tenantId) throws TelegramApiException {
-        // Get bot token
+        execute(response, botType, tenantId, OutboundScheduler.Priority.TRANSACTIONAL);
+    }
+
+    /**
+     * Execute a BotResponse with the given send priority and wait until every call has been sent
+     *
+     * @param response Bot response to execute
+     * @param botType Bot type
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param priority Send priority
+     * @throws TelegramApiException If the bot has no configuration or execution fails
+     */
+    public void execute(BotResponse response, BotType botType, UUID tenantId,
+                        OutboundScheduler.Priority priority) throws TelegramApiException {
+        // Callers such as the outbox rely on this failing, not on nothing being sent
         CachedBotRegistry.BotConfig config = botRegistry.getBotConfig(botType, tenantId);
         if (config == null) {
-            log.error("No bot configuration found for botType: {}, tenantId: {}", botType, tenantId);
-            return;
+            throw new TelegramApiException("No bot configuration found for botType: " + botType
+                    + ", tenantId: " + tenantId);
+        }
+
+        for (CompletableFuture<Void> send : submit(response, config.getToken(), tenantId, priority)) {
+            try {
+                send.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof TelegramApiException cause) {
+                    throw cause;
+                }
+                throw new TelegramApiException("Error executing bot response", e.getCause());
+            }
         }
+    }
+
+    private List<CompletableFuture<Void>> submit(BotResponse response, String botToken, UUID tenantId,
+                                                 OutboundScheduler.Priority priority) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
 
-        String botToken = config.getToken();
+        // Primary method first, then additional methods, in order
+        List<Object> methods = new ArrayList<>();
+        if (response.getMethod() != null) {
+            methods.add(response.getMethod());
+        }
+        methods.addAll(response.getAdditionalMethods());
 
-        // Execute primary method
-        executeBotMethod(response.getMethod(), botToken);
+        for (Object method : methods) {
+            // Queued edits and texts for the chat may absorb this one, see OutboundCoalescer
+            sends.add(outboundScheduler.submit(botToken, chatId(method), priority, method,
+                    queued -> executeBotMethod(queued, botToken, tenantId)));
+        }
+        return sends;
+    }
 
-        // Execute additional methods
-        for (Object method : response.getAdditionalMethods()) {
-            executeBotMethod(method, botToken);
+    private static String chatId(Object method) {
+        if (method instanceof SendMessage sendMessage) {
+            return sendMessage.getChatId();
+        } else if (method instanceof SendPhoto sendPhoto) {
+            return sendPhoto.getChatId();
+        } else if (method instanceof SendMediaGroup sendMediaGroup) {
+            return sendMediaGroup.getChatId();
+        } else if (method instanceof EditMessageText editMessage) {
+            return editMessage.getChatId();
         }
+        return null;
     }
 
     /**
@@ -75,35 +159,125 @@ public class BotExecutor {
      *
      * @param method Method to execute
      * @param botToken Bot token
+     * @param tenantId Tenant ID (null for admin bot)
      * @throws TelegramApiException If execution fails
      */
-    private void executeBotMethod(Object method, String botToken) throws TelegramApiException {
-        // Use Telegram API client to execute the method
-        // The implementation would depend on how you're interacting with Telegram API
-        // This is a simplified example
-
-        if (method instanceof BotApiMethod) {
-            // Execute BotApiMethod
-            BotApiMethod<?> apiMethod = (BotApiMethod<?>) method;
-            // botClient.execute(apiMethod, botToken);
+    private void executeBotMethod(Object method, String botToken, UUID tenantId) throws TelegramApiException {
+        if (method instanceof BotApiMethod<?> apiMethod) {
+            // SendMessage, EditMessageText and the other JSON methods
+            telegramApiClient.execute(botToken, apiMethod);
             log.debug("Executed bot method: {}", apiMethod.getMethod());
-        } else if (method instanceof SendMessage) {
-            // Execute SendMessage
-            SendMessage sendMessage = (SendMessage) method;
-            // botClient.execute(sendMessage, botToken);
-            log.debug("Sent message to chat: {}", sendMessage.getChatId());
-        } else if (method instanceof SendPhoto) {
-            // Execute SendPhoto
-            SendPhoto sendPhoto = (SendPhoto) method;
-            // botClient.execute(sendPhoto, botToken);
+        } else if (method instanceof SendPhoto sendPhoto) {
+            sendPhoto(sendPhoto, botToken, tenantId);
             log.debug("Sent photo to chat: {}", sendPhoto.getChatId());
-        } else if (method instanceof EditMessageText) {
-            // Execute EditMessageText
-            EditMessageText editMessage = (EditMessageText) method;
-            // botClient.execute(editMessage, botToken);
-            log.debug("Edited message: {}", editMessage.getMessageId());
+        } else if (method instanceof SendMediaGroup sendMediaGroup) {
+            sendMediaGroup(sendMediaGroup, botToken, tenantId);
+            log.debug("Sent media group to chat: {}", sendMediaGroup.getChatId());
         } else {
             log.warn("Unsupported method type: {}", method.getClass().getName());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Send a photo, by the file_id the bot got for its URL before if there is one
+     */
+    private void sendPhoto(SendPhoto sendPhoto, String botToken, UUID tenantId) throws TelegramApiException {
+        InputFile photo = sendPhoto.getPhoto();
+        String imageUrl = TelegramMediaCache.imageUrl(photo);
+        if (imageUrl == null) {
+            telegramApiClient.execute(botToken, sendPhoto);
+            return;
+        }
+
+        Optional<String> fileId = mediaCache.getFileId(botToken, tenantId, imageUrl);
+        try {
+            if (fileId.isPresent()) {
+                sendPhoto.setPhoto(new InputFile(fileId.get()));
+                try {
+                    telegramApiClient.execute(botToken, sendPhoto);
+                    return;
+                } catch (TelegramApiRequestException e) {
+                    if (!isBadRequest(e)) {
+                        throw e;
+                    }
+                    log.debug("Cached file_id rejected for {}, sending by URL", imageUrl);
+                    mediaCache.evict(botToken, tenantId, imageUrl);
+                    sendPhoto.setPhoto(photo);
+                }
+            }
+            mediaCache.put(botToken, tenantId, imageUrl, telegramApiClient.execute(botToken, sendPhoto));
+        } finally {
+            // A retried call starts from the URL again
+            sendPhoto.setPhoto(photo);
+        }
+    }
+
+    /**
+     * Send an album, replacing image URLs with cached file_ids where the bot has them
+     */
+    private void sendMediaGroup(SendMediaGroup sendMediaGroup, String botToken, UUID tenantId)
+            throws TelegramApiException {
+        List<InputMedia> medias = sendMediaGroup.getMedias();
+        String[] imageUrls = new String[medias.size()];
+        boolean[] cached = new boolean[medias.size()];
+        for (int i = 0; i < medias.size(); i++) {
+            InputMedia media = medias.get(i);
+            if (media instanceof InputMediaPhoto && !media.isNewMedia()) {
+                imageUrls[i] = TelegramMediaCache.imageUrl(media.getMedia());
+            }
+            if (imageUrls[i] != null) {
+                Optional<String> fileId = mediaCache.getFileId(botToken, tenantId, imageUrls[i]);
+                if (fileId.isPresent()) {
+                    media.setMedia(fileId.get());
+                    cached[i] = true;
+                }
+            }
+        }
+
+        try {
+            List<Message> sent;
+            try {
+                sent = telegramApiClient.execute(botToken, sendMediaGroup);
+            } catch (TelegramApiRequestException e) {
+                if (!isBadRequest(e) || !contains(cached)) {
+                    throw e;
+                }
+                log.debug("Cached file_id rejected in media group, sending by URL");
+                for (int i = 0; i < medias.size(); i++) {
+                    if (cached[i]) {
+                        mediaCache.evict(botToken, tenantId, imageUrls[i]);
+                        medias.get(i).setMedia(imageUrls[i]);
+                        cached[i] = false;
+                    }
+                }
+                sent = telegramApiClient.execute(botToken, sendMediaGroup);
+            }
+
+            for (int i = 0; i < Math.min(sent.size(), medias.size()); i++) {
+                if (imageUrls[i] != null && !cached[i]) {
+                    mediaCache.put(botToken, tenantId, imageUrls[i], sent.get(i));
+                }
+            }
+        } finally {
+            for (int i = 0; i < medias.size(); i++) {
+                if (imageUrls[i] != null) {
+                    medias.get(i).setMedia(imageUrls[i]);
+                }
+            }
+        }
+    }
+
+    private static boolean isBadRequest(TelegramApiRequestException e) {
+        // e.g. "wrong file identifier" for a file_id Telegram no longer knows
+        return Integer.valueOf(400).equals(e.getErrorCode());
+    }
+
+    private static boolean contains(boolean[] values) {
+        for (boolean value : values) {
+            if (value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,84 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Rules for folding a queued Bot API method and the next one for the same chat into one call.
+ * An edit of a message replaces a queued edit of the same message, as only the last
+ * text is ever visible. Plain text messages are joined into one when nothing but the
+ * split into two bubbles is lost: no keyboards, entities or replies, the same formatting,
+ * notification and link preview options, and still within Telegram's message length limit.
+ */
+final class OutboundCoalescer {
+
+    static final int MAX_MESSAGE_LENGTH = 4096;
+    private static final String MESSAGE_SEPARATOR = "\n\n";
+
+    private OutboundCoalescer() {
+    }
+
+    /**
+     * Merge two methods for the same chat, the first of which has not been sent yet
+     *
+     * @param queued Method waiting in the queue
+     * @param next Method submitted after it
+     * @return Method to send instead of both, or null if they must be sent separately
+     */
+    static Object merge(Object queued, Object next) {
+        if (queued instanceof EditMessageText queuedEdit && next instanceof EditMessageText nextEdit) {
+            return sameMessage(queuedEdit, nextEdit) ? nextEdit : null;
+        }
+        if (queued instanceof SendMessage queuedMessage && next instanceof SendMessage nextMessage) {
+            return canJoin(queuedMessage, nextMessage) ? join(queuedMessage, nextMessage) : null;
+        }
+        return null;
+    }
+
+    private static boolean sameMessage(EditMessageText a, EditMessageText b) {
+        if (a.getInlineMessageId() != null || b.getInlineMessageId() != null) {
+            return Objects.equals(a.getInlineMessageId(), b.getInlineMessageId());
+        }
+        return a.getMessageId() != null
+                && a.getMessageId().equals(b.getMessageId())
+                && Objects.equals(a.getChatId(), b.getChatId());
+    }
+
+    private static boolean canJoin(SendMessage a, SendMessage b) {
+        return Objects.equals(a.getChatId(), b.getChatId())
+                && Objects.equals(a.getMessageThreadId(), b.getMessageThreadId())
+                && a.getReplyMarkup() == null && b.getReplyMarkup() == null
+                && isEmpty(a.getEntities()) && isEmpty(b.getEntities())
+                && a.getReplyToMessageId() == null && b.getReplyToMessageId() == null
+                && a.getReplyParameters() == null && b.getReplyParameters() == null
+                && Objects.equals(a.getAllowSendingWithoutReply(), b.getAllowSendingWithoutReply())
+                && Objects.equals(a.getParseMode(), b.getParseMode())
+                && Objects.equals(a.getDisableNotification(), b.getDisableNotification())
+                && Objects.equals(a.getDisableWebPagePreview(), b.getDisableWebPagePreview())
+                && Objects.equals(a.getLinkPreviewOptions(), b.getLinkPreviewOptions())
+                && Objects.equals(a.getProtectContent(), b.getProtectContent())
+                && a.getText().length() + MESSAGE_SEPARATOR.length() + b.getText().length() <= MAX_MESSAGE_LENGTH;
+    }
+
+    private static SendMessage join(SendMessage a, SendMessage b) {
+        // A new method, the queued one may still be referenced by its caller
+        return SendMessage.builder()
+                .chatId(a.getChatId())
+                .messageThreadId(a.getMessageThreadId())
+                .text(a.getText() + MESSAGE_SEPARATOR + b.getText())
+                .parseMode(a.getParseMode())
+                .disableNotification(a.getDisableNotification())
+                .disableWebPagePreview(a.getDisableWebPagePreview())
+                .linkPreviewOptions(a.getLinkPreviewOptions())
+                .allowSendingWithoutReply(a.getAllowSendingWithoutReply())
+                .protectContent(a.getProtectContent())
+                .build();
+    }
+
+    private static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
+    }
+}
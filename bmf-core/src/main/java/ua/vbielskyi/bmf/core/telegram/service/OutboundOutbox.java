@@ -0,0 +1,387 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.PartialBotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
+import ua.vbielskyi.bmf.core.telegram.model.BotType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable outbox for bot messages that must not be lost, such as order notifications.
+ * Messages are appended to a Redis Stream and sent by a consumer group, so every node
+ * takes batches in parallel and a message stays pending until it has been sent. Messages
+ * left pending by a crashed or restarted node are claimed by another one after
+ * {@code bot.outbox.claim-idle-ms}, and ones that keep failing are moved to a dead letter
+ * stream. Delivery is at least once: each message carries an idempotency key that is
+ * recorded after a successful send, so a redelivered message that already went out is
+ * skipped rather than sent twice.
+ */
+@Slf4j
+@Component
+public class OutboundOutbox {
+
+    static final String STREAM_KEY = "bmf:telegram:outbox";
+    static final String DEAD_LETTER_KEY = "bmf:telegram:outbox:dead";
+    private static final String SENT_KEY_PREFIX = "bmf:telegram:outbox:sent:";
+    private static final String GROUP = "bmf-outbox";
+    // Only Bot API method classes are ever instantiated from stream entries
+    private static final String METHODS_PACKAGE = "org.telegram.telegrambots.meta.api.methods.";
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_BOT_TYPE = "bot";
+    private static final String FIELD_TENANT = "tenant";
+    private static final String FIELD_PRIORITY = "priority";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_PAYLOAD = "payload";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BotExecutor botExecutor;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sendExecutor;
+    private final String consumerName = "outbox-" + UUID.randomUUID();
+    private final Set<RecordId> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Timer deliveryDelay;
+    private final Counter sentCounter;
+    private final Counter duplicateCounter;
+    private final Counter deadLetterCounter;
+
+    @Value("${bot.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bot.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${bot.outbox.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${bot.outbox.claim-idle-ms:60000}")
+    private long claimIdleMs;
+
+    @Value("${bot.outbox.max-deliveries:10}")
+    private int maxDeliveries;
+
+    @Value("${bot.outbox.idempotency-ttl-seconds:86400}")
+    private long idempotencyTtlSeconds;
+
+    private Semaphore slots;
+    private volatile boolean groupReady;
+
+    public OutboundOutbox(RedisTemplate<String, String> redisTemplate, BotExecutor botExecutor,
+                          ObjectMapper objectMapper, ExecutorFactory executorFactory, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.botExecutor = botExecutor;
+        this.objectMapper = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.sendExecutor = executorFactory.newExecutor("bmf-outbox", 16);
+        this.deliveryDelay = Timer.builder("bmf.telegram.outbox.delay")
+                .description("Time from enqueue to successful send")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("bmf.telegram.outbox.sent")
+                .description("Outbox messages sent")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("bmf.telegram.outbox.duplicate")
+                .description("Redelivered outbox messages skipped because they were already sent")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("bmf.telegram.outbox.dead")
+                .description("Outbox messages moved to the dead letter stream")
+                .register(meterRegistry);
+        Gauge.builder("bmf.telegram.outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox messages not yet sent")
+                .register(meterRegistry);
+        Gauge.builder("bmf.telegram.outbox.pending", pending, AtomicLong::get)
+                .description("Outbox messages taken by a consumer but not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("bmf.telegram.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest unsent outbox message in milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        slots = new Semaphore(maxInFlight);
+        if (enabled) {
+            ensureGroup();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished messages stay pending and are claimed by another node
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * Queue a response durably.
+     * New file uploads cannot be stored, send those with {@link BotExecutor} directly.
+     *
+     * @param response Bot response to send
+     * @param botType Bot type
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param priority Send priority
+     * @param idempotencyKey Key identifying the response, e.g. the notification ID;
+     *                       a response already sent under this key is not sent again
+     */
+    public void enqueue(BotResponse response, BotType botType, UUID tenantId,
+                        OutboundScheduler.Priority priority, String idempotencyKey) {
+        if (!enabled) {
+            botExecutor.executeAsync(response, botType, tenantId, priority);
+            return;
+        }
+
+        List<Object> methods = new ArrayList<>();
+        if (response.getMethod() != null) {
+            methods.add(response.getMethod());
+        }
+        methods.addAll(response.getAdditionalMethods());
+
+        StreamOperations<String, Object, Object> stream = redisTemplate.opsForStream();
+        for (int i = 0; i < methods.size(); i++) {
+            Object method = methods.get(i);
+            if (method instanceof SendPhoto sendPhoto && sendPhoto.getPhoto().isNew()) {
+                throw new IllegalArgumentException("Photo uploads cannot be queued in the outbox");
+            }
+
+            Map<String, String> fields = new HashMap<>();
+            fields.put(FIELD_KEY, idempotencyKey + ":" + i);
+            fields.put(FIELD_BOT_TYPE, botType.name());
+            if (tenantId != null) {
+                fields.put(FIELD_TENANT, tenantId.toString());
+            }
+            fields.put(FIELD_PRIORITY, priority.name());
+            fields.put(FIELD_TYPE, method.getClass().getName());
+            try {
+                fields.put(FIELD_PAYLOAD, objectMapper.writeValueAsString(method));
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Cannot serialize " + method.getClass().getSimpleName(), e);
+            }
+            stream.add(StreamRecords.newRecord().in(STREAM_KEY).ofMap(fields));
+        }
+    }
+
+    /**
+     * Take the next batch of new messages for this node
+     */
+    @Scheduled(fixedDelayString = "${bot.outbox.poll-interval-ms:200}")
+    public void poll() {
+        if (!enabled || (!groupReady && !ensureGroup())) {
+            return;
+        }
+
+        int count = Math.min(batchSize, slots.availablePermits());
+        if (count == 0) {
+            return;
+        }
+        try {
+            // Generic varargs of a single offset, nothing else is passed through them
+            @SuppressWarnings("unchecked")
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                    Consumer.from(GROUP, consumerName),
+                    StreamReadOptions.empty().count(count),
+                    StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()));
+            submit(records);
+        } catch (Exception e) {
+            if (String.valueOf(e.getMessage()).contains("NOGROUP")) {
+                groupReady = false;
+            }
+            log.warn("Could not read outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim messages other consumers left pending, dead-letter the ones that keep
+     * failing and refresh the lag gauges
+     */
+    @Scheduled(fixedDelayString = "${bot.outbox.claim-interval-ms:15000}")
+    public void reclaim() {
+        if (!enabled || !groupReady) {
+            return;
+        }
+
+        try {
+            StreamOperations<String, Object, Object> stream = redisTemplate.opsForStream();
+            updateGauges(stream);
+
+            PendingMessages stale = stream.pending(STREAM_KEY, GROUP, Range.unbounded(), batchSize);
+            List<RecordId> claimable = new ArrayList<>();
+            for (PendingMessage message : stale) {
+                if (inFlight.contains(message.getId())
+                        || message.getElapsedTimeSinceLastDelivery().toMillis() < claimIdleMs) {
+                    continue;
+                }
+                if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                    deadLetter(stream, message.getId());
+                } else {
+                    claimable.add(message.getId());
+                }
+            }
+
+            if (!claimable.isEmpty()) {
+                List<MapRecord<String, Object, Object>> claimed = stream.claim(STREAM_KEY, GROUP, consumerName,
+                        Duration.ofMillis(claimIdleMs), claimable.toArray(RecordId[]::new));
+                log.info("Claimed {} stale outbox message(s)", claimed.size());
+                submit(claimed);
+            }
+        } catch (Exception e) {
+            log.warn("Could not reclaim outbox messages: {}", e.getMessage());
+        }
+    }
+
+    private void submit(List<MapRecord<String, Object, Object>> records) {
+        if (records == null) {
+            return;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+            if (!inFlight.add(record.getId())) {
+                continue;
+            }
+            // Past the in-flight limit the message stays pending and is claimed later
+            if (!slots.tryAcquire()) {
+                inFlight.remove(record.getId());
+                continue;
+            }
+            try {
+                sendExecutor.execute(() -> {
+                    try {
+                        deliver(record);
+                    } finally {
+                        inFlight.remove(record.getId());
+                        slots.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(record.getId());
+                slots.release();
+            }
+        }
+    }
+
+    private void deliver(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        String sentKey = SENT_KEY_PREFIX + fields.get(FIELD_KEY);
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(sentKey))) {
+                duplicateCounter.increment();
+                acknowledge(record.getId());
+                return;
+            }
+
+            Object tenant = fields.get(FIELD_TENANT);
+            BotResponse response = BotResponse.builder().build().addMethod(readMethod(fields));
+            botExecutor.execute(response,
+                    BotType.valueOf((String) fields.get(FIELD_BOT_TYPE)),
+                    tenant != null ? UUID.fromString((String) tenant) : null,
+                    OutboundScheduler.Priority.valueOf((String) fields.get(FIELD_PRIORITY)));
+
+            redisTemplate.opsForValue().set(sentKey, "1", idempotencyTtlSeconds, TimeUnit.SECONDS);
+            acknowledge(record.getId());
+            sentCounter.increment();
+            deliveryDelay.record(System.currentTimeMillis() - record.getId().getTimestamp(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Left pending, it is retried once claim-idle-ms has passed
+            log.warn("Could not send outbox message {}: {}", record.getId(), e.getMessage());
+        }
+    }
+
+    private Object readMethod(Map<Object, Object> fields) throws Exception {
+        String type = (String) fields.get(FIELD_TYPE);
+        if (type == null || !type.startsWith(METHODS_PACKAGE)) {
+            throw new IllegalArgumentException("Unexpected outbox method type: " + type);
+        }
+        Class<?> methodClass = Class.forName(type);
+        if (!PartialBotApiMethod.class.isAssignableFrom(methodClass)) {
+            throw new IllegalArgumentException("Unexpected outbox method type: " + type);
+        }
+        return objectMapper.readValue((String) fields.get(FIELD_PAYLOAD), methodClass);
+    }
+
+    private void acknowledge(RecordId id) {
+        StreamOperations<String, Object, Object> stream = redisTemplate.opsForStream();
+        stream.acknowledge(STREAM_KEY, GROUP, id);
+        // Deleting sent entries keeps the stream length equal to the backlog
+        stream.delete(STREAM_KEY, id);
+    }
+
+    private void deadLetter(StreamOperations<String, Object, Object> stream, RecordId id) {
+        List<MapRecord<String, Object, Object>> records = stream.range(STREAM_KEY, Range.just(id.getValue()));
+        if (records != null && !records.isEmpty()) {
+            stream.add(StreamRecords.newRecord().in(DEAD_LETTER_KEY).ofMap(records.get(0).getValue()));
+        }
+        acknowledge(id);
+        deadLetterCounter.increment();
+        log.error("Outbox message {} failed {} times, moved to {}", id, maxDeliveries, DEAD_LETTER_KEY);
+    }
+
+    private void updateGauges(StreamOperations<String, Object, Object> stream) {
+        Long size = stream.size(STREAM_KEY);
+        backlog.set(size != null ? size : 0);
+        pending.set(stream.pending(STREAM_KEY, GROUP).getTotalPendingMessages());
+
+        List<MapRecord<String, Object, Object>> oldest = stream.range(STREAM_KEY, Range.unbounded(),
+                Limit.limit().count(1));
+        lagMillis.set(oldest == null || oldest.isEmpty()
+                ? 0
+                : System.currentTimeMillis() - oldest.get(0).getId().getTimestamp());
+    }
+
+    private boolean ensureGroup() {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(STREAM_KEY.getBytes(StandardCharsets.UTF_8), GROUP, ReadOffset.from("0"), true));
+            groupReady = true;
+        } catch (Exception e) {
+            if (String.valueOf(e.getMessage()).contains("BUSYGROUP")
+                    || (e.getCause() != null && String.valueOf(e.getCause().getMessage()).contains("BUSYGROUP"))) {
+                groupReady = true;
+            } else {
+                log.warn("Could not create outbox consumer group: {}", e.getMessage());
+            }
+        }
+        return groupReady;
+    }
+}
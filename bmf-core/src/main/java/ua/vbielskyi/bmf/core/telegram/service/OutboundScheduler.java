@@ -0,0 +1,531 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+import ua.vbielskyi.bmf.core.ratelimit.RateLimit;
+import ua.vbielskyi.bmf.core.ratelimit.RateLimiter;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces outbound Telegram calls within the Bot API limits.
+ * Each bot has its own queue, drained in priority order (transactional before
+ * marketing, then submission order). A call goes out once its chat bucket
+ * (1/s for private chats, 20/min for groups) and the bot's global bucket
+ * (30/s, shared by all nodes when the rate limiter is distributed) allow it,
+ * and the previous call to the same chat has finished, so a chat's messages
+ * arrive in order. Calls are indexed per chat: only the next call of each chat
+ * that may go out now is in the ready set the drain works through, and chats
+ * that must wait sit in a timeline until their bucket refills.
+ * A 429 pauses the whole bot for the retry_after Telegram asked for and puts
+ * the call back at the front of its chat. A Bot API method submitted while the
+ * last queued call for its chat is still waiting may be folded into that call
+ * (see {@link OutboundCoalescer}), so bursts of edits cost one call.
+ */
+@Slf4j
+@Component
+public class OutboundScheduler {
+
+    /**
+     * Send priority, drained in declaration order
+     */
+    public enum Priority {
+        TRANSACTIONAL,
+        MARKETING
+    }
+
+    /**
+     * A single Telegram API call
+     */
+    @FunctionalInterface
+    public interface OutboundCall {
+        void send() throws TelegramApiException;
+    }
+
+    /**
+     * Sends a Bot API method, which may have been merged with later ones by the time it is sent
+     */
+    @FunctionalInterface
+    public interface MethodSender {
+        void send(Object method) throws TelegramApiException;
+    }
+
+    private static final Comparator<Outgoing> ORDER = Comparator
+            .comparing((Outgoing outgoing) -> outgoing.priority)
+            .thenComparingLong(outgoing -> outgoing.sequence);
+
+    private static final Comparator<ChatQueue> TIMELINE = Comparator
+            .comparingLong((ChatQueue chat) -> chat.readyAt)
+            .thenComparingLong(chat -> chat.id);
+
+    private final RateLimiter rateLimiter;
+    private final ExecutorService sendExecutor;
+    private final ExecutorService drainExecutor;
+    private final ScheduledExecutorService timer;
+    private final Map<String, BotQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter throttledCounter;
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<String, Counter> coalescedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${bot.outbound.rate-limit:30,1}")
+    private String botLimitSpec;
+
+    @Value("${bot.outbound.chat-rate-limit:1,1}")
+    private String chatLimitSpec;
+
+    @Value("${bot.outbound.group-rate-limit:20,60}")
+    private String groupLimitSpec;
+
+    @Value("${bot.outbound.max-queue-size:10000}")
+    private int maxQueueSize;
+
+    @Value("${bot.outbound.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${bot.outbound.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    /**
+     * Extra time an edit is held back so that a quick follow-up edit can replace it,
+     * 0 to send edits as soon as the limits allow
+     */
+    @Value("${bot.outbound.coalescing.edit-delay-ms:300}")
+    private long editDelayMs;
+
+    private RateLimit botLimit;
+    private RateLimit chatLimit;
+    private RateLimit groupLimit;
+
+    public OutboundScheduler(RateLimiter rateLimiter, ExecutorFactory executorFactory, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.sendExecutor = executorFactory.newExecutor("bmf-outbound", 10);
+        this.drainExecutor = executorFactory.newExecutor("bmf-outbound-drain", 2);
+        this.timer = Executors.newSingleThreadScheduledExecutor(executorFactory.threadFactory("bmf-outbound-timer"));
+        this.throttledCounter = Counter.builder("bmf.telegram.outbound.throttled")
+                .description("Outbound calls rejected by Telegram with 429")
+                .register(meterRegistry);
+        Gauge.builder("bmf.telegram.outbound.queue.depth", queued, AtomicInteger::get)
+                .description("Outbound calls waiting to be sent")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            waitTimers.put(priority, Timer.builder("bmf.telegram.outbound.wait")
+                    .description("Time outbound calls spend queued")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        botLimit = RateLimit.parse(botLimitSpec);
+        chatLimit = RateLimit.parse(chatLimitSpec);
+        groupLimit = RateLimit.parse(groupLimitSpec);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdown();
+        drainExecutor.shutdown();
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * Queue a call
+     *
+     * @param botToken Bot token
+     * @param chatId Target chat, or null if the call is not addressed to a chat
+     * @param priority Send priority
+     * @param call The call
+     * @return Completes when the call has been sent, or exceptionally if it failed
+     */
+    public CompletableFuture<Void> submit(String botToken, String chatId, Priority priority, OutboundCall call) {
+        return submit(botToken, chatId, priority, null, ignored -> call.send());
+    }
+
+    /**
+     * Queue a Bot API method, which may be merged with the call queued before it for the same chat
+     *
+     * @param botToken Bot token
+     * @param chatId Target chat, or null if the call is not addressed to a chat
+     * @param priority Send priority
+     * @param method The method, or null if it must not be merged
+     * @param sender Sends the method, or whatever it was merged into
+     * @return Completes when the method, or the call it was merged into, has been sent
+     */
+    public CompletableFuture<Void> submit(String botToken, String chatId, Priority priority,
+                                          Object method, MethodSender sender) {
+        String botId = botId(botToken);
+        BotQueue queue = queues.computeIfAbsent(botId, BotQueue::new);
+        Outgoing outgoing = new Outgoing(chatId, priority, sequence.incrementAndGet(), method, sender);
+        if (method instanceof EditMessageText && editDelayMs > 0) {
+            outgoing.notBefore = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(editDelayMs);
+        }
+        CompletableFuture<Void> future = queue.offer(outgoing);
+        if (future == null) {
+            return CompletableFuture.failedFuture(new TelegramApiException("Outbound queue full for bot " + botId));
+        }
+        return future;
+    }
+
+    /**
+     * The numeric bot ID before the colon, which unlike the rest of the token is not secret
+     */
+    static String botId(String botToken) {
+        int separator = botToken.indexOf(':');
+        return separator > 0 ? botToken.substring(0, separator) : Integer.toHexString(botToken.hashCode());
+    }
+
+    private static boolean isGroup(String chatId) {
+        // Group, supergroup and channel IDs are negative
+        return chatId.startsWith("-");
+    }
+
+    private void countCoalesced(Object method) {
+        coalescedCounters.computeIfAbsent(method.getClass().getSimpleName(),
+                type -> Counter.builder("bmf.telegram.outbound.coalesced")
+                        .description("Outbound calls saved by merging them into a queued call")
+                        .tag("method", type)
+                        .register(meterRegistry)).increment();
+    }
+
+    private static final class Outgoing {
+        private final String chatId;
+        private final Priority priority;
+        private final long sequence;
+        private final MethodSender sender;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        // Guarded by the bot queue, replaced when a later method is merged in
+        private Object method;
+        private long notBefore;
+        private int attempts;
+
+        private Outgoing(String chatId, Priority priority, long sequence, Object method, MethodSender sender) {
+            this.chatId = chatId;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.method = method;
+            this.sender = sender;
+        }
+    }
+
+    /**
+     * Calls waiting for one chat, guarded by the bot queue
+     */
+    private static final class ChatQueue {
+        private final String chatId;
+        private final long id;
+        private final RateLimit limit;
+        private final NavigableSet<Outgoing> calls = new TreeSet<>(ORDER);
+        // Last queued call, the only one later methods may be merged into
+        private Outgoing tail;
+        // GCRA state: the time at which the chat's bucket is full again
+        private long fullAt;
+        // Call in the ready set, if the chat has one there
+        private Outgoing readyHead;
+        // Time the chat is parked on the timeline until, if it is there
+        private long readyAt;
+        private boolean parked;
+        private boolean inFlight;
+
+        private ChatQueue(String chatId, long id, RateLimit limit, long now) {
+            this.chatId = chatId;
+            this.id = id;
+            this.limit = limit;
+            this.fullAt = now;
+        }
+
+        /**
+         * Earliest time the bucket lets another call through
+         */
+        private long sendableAt() {
+            return fullAt + limit.intervalNanos() - limit.period().toNanos();
+        }
+    }
+
+    private final class BotQueue {
+        private final String botId;
+        private final String limiterKey;
+        // Calls that may go out as soon as the bot bucket allows, at most one per chat
+        private final NavigableSet<Outgoing> ready = new TreeSet<>(ORDER);
+        private final Map<String, ChatQueue> chats = new HashMap<>();
+        // Chats waiting for their bucket or an edit delay, earliest first
+        private final NavigableSet<ChatQueue> timeline = new TreeSet<>(TIMELINE);
+        private int size;
+        private long pausedUntil;
+        private boolean draining;
+        private boolean wakeScheduled;
+        private long wakeAt;
+
+        private BotQueue(String botId) {
+            this.botId = botId;
+            this.limiterKey = "bot:" + botId + ":send";
+        }
+
+        synchronized CompletableFuture<Void> offer(Outgoing outgoing) {
+            String chatId = outgoing.chatId;
+            ChatQueue chat = chatId != null ? chats.get(chatId) : null;
+            if (coalescingEnabled && chat != null && outgoing.method != null) {
+                Outgoing tail = chat.tail;
+                Object merged = tail != null && tail.priority == outgoing.priority && tail.method != null
+                        ? OutboundCoalescer.merge(tail.method, outgoing.method)
+                        : null;
+                if (merged != null) {
+                    countCoalesced(outgoing.method);
+                    tail.method = merged;
+                    return tail.future;
+                }
+            }
+
+            if (size >= maxQueueSize) {
+                return null;
+            }
+            size++;
+            queued.incrementAndGet();
+            long now = System.nanoTime();
+            if (chatId == null) {
+                makeReady(outgoing);
+                return outgoing.future;
+            }
+
+            if (chat == null) {
+                chat = new ChatQueue(chatId, sequence.incrementAndGet(), isGroup(chatId) ? groupLimit : chatLimit, now);
+                chats.put(chatId, chat);
+            }
+            chat.calls.add(outgoing);
+            chat.tail = outgoing;
+            refresh(chat, now);
+            return outgoing.future;
+        }
+
+        /**
+         * Put the chat's next call where it belongs: in the ready set, on the timeline,
+         * or nowhere while a call to the chat is in flight
+         */
+        private void refresh(ChatQueue chat, long now) {
+            if (chat.readyHead != null) {
+                ready.remove(chat.readyHead);
+                chat.readyHead = null;
+            }
+            if (chat.parked) {
+                timeline.remove(chat);
+                chat.parked = false;
+            }
+            if (chat.inFlight) {
+                // Refreshed again once the call has finished
+                return;
+            }
+
+            if (chat.calls.isEmpty()) {
+                // Chats whose buckets are full again carry no state
+                if (chat.fullAt - now <= 0) {
+                    chats.remove(chat.chatId, chat);
+                } else {
+                    park(chat, chat.fullAt);
+                }
+                return;
+            }
+
+            Outgoing head = chat.calls.first();
+            long readyAt = Math.max(chat.sendableAt(), head.notBefore);
+            if (readyAt - now > 0) {
+                park(chat, readyAt);
+                return;
+            }
+            chat.readyHead = head;
+            makeReady(head);
+        }
+
+        private void park(ChatQueue chat, long readyAt) {
+            chat.readyAt = readyAt;
+            chat.parked = true;
+            timeline.add(chat);
+            scheduleWake(readyAt);
+        }
+
+        private void makeReady(Outgoing outgoing) {
+            boolean wasEmpty = ready.isEmpty();
+            ready.add(outgoing);
+            // A non-empty ready set always has a drain running or a wake-up scheduled
+            if (wasEmpty && !draining && pausedUntil - System.nanoTime() <= 0) {
+                startDrain();
+            }
+        }
+
+        private void startDrain() {
+            if (!draining) {
+                draining = true;
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Send ready calls while the bot bucket has tokens. The token is taken outside
+         * the lock, as a distributed rate limiter may have to ask Redis for it.
+         */
+        void drain() {
+            while (true) {
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    promote(now);
+                    if (ready.isEmpty() || pausedUntil - now > 0) {
+                        if (!ready.isEmpty()) {
+                            scheduleWake(pausedUntil);
+                        }
+                        stopDraining();
+                        return;
+                    }
+                }
+
+                boolean granted = rateLimiter.tryAcquire(limiterKey, botLimit);
+
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    if (!granted) {
+                        scheduleWake(now + botLimit.intervalNanos());
+                        stopDraining();
+                        return;
+                    }
+                    Outgoing outgoing = ready.pollFirst();
+                    if (outgoing != null) {
+                        dispatch(outgoing, now);
+                    }
+                }
+            }
+        }
+
+        private void stopDraining() {
+            draining = false;
+            if (!timeline.isEmpty()) {
+                // Wake-ups superseded by an earlier one were dropped, keep one pending for the chats still waiting
+                scheduleWake(timeline.first().readyAt);
+            }
+        }
+
+        /**
+         * Move chats whose wait is over from the timeline to the ready set
+         */
+        private void promote(long now) {
+            while (!timeline.isEmpty() && timeline.first().readyAt - now <= 0) {
+                ChatQueue chat = timeline.pollFirst();
+                chat.parked = false;
+                refresh(chat, now);
+            }
+        }
+
+        private void dispatch(Outgoing outgoing, long now) {
+            size--;
+            queued.decrementAndGet();
+            ChatQueue chat = outgoing.chatId != null ? chats.get(outgoing.chatId) : null;
+            if (chat != null) {
+                chat.calls.remove(outgoing);
+                chat.readyHead = null;
+                if (chat.tail == outgoing) {
+                    chat.tail = null;
+                }
+                chat.fullAt = Math.max(chat.fullAt, now) + chat.limit.intervalNanos();
+                chat.inFlight = true;
+            }
+            send(outgoing, chat, now, outgoing.method);
+        }
+
+        private void scheduleWake(long at) {
+            if (wakeScheduled && wakeAt - at <= 0) {
+                return;
+            }
+            wakeScheduled = true;
+            wakeAt = at;
+            timer.schedule(() -> wake(at), Math.max(0, at - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+
+        private synchronized void wake(long at) {
+            if (wakeScheduled && wakeAt == at) {
+                wakeScheduled = false;
+            }
+            startDrain();
+        }
+
+        private void send(Outgoing outgoing, ChatQueue chat, long now, Object method) {
+            waitTimers.get(outgoing.priority).record(now - outgoing.enqueuedAt, TimeUnit.NANOSECONDS);
+            sendExecutor.execute(() -> {
+                try {
+                    outgoing.sender.send(method);
+                    finished(chat);
+                    outgoing.future.complete(null);
+                } catch (TelegramApiRequestException e) {
+                    if (Integer.valueOf(429).equals(e.getErrorCode()) && outgoing.attempts < maxRetries) {
+                        retryLater(outgoing, chat, e);
+                    } else {
+                        finished(chat);
+                        outgoing.future.completeExceptionally(e);
+                    }
+                } catch (Exception e) {
+                    finished(chat);
+                    outgoing.future.completeExceptionally(e);
+                }
+            });
+        }
+
+        private synchronized void finished(ChatQueue chat) {
+            if (chat != null) {
+                chat.inFlight = false;
+                refresh(chat, System.nanoTime());
+            }
+        }
+
+        private synchronized void retryLater(Outgoing outgoing, ChatQueue chat, TelegramApiRequestException e) {
+            throttledCounter.increment();
+            Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+            long pauseNanos = TimeUnit.SECONDS.toNanos(retryAfter != null ? retryAfter : 1);
+            log.warn("Telegram throttled bot {}, pausing sends for {}s", botId, TimeUnit.NANOSECONDS.toSeconds(pauseNanos));
+
+            long now = System.nanoTime();
+            if (pausedUntil - now < pauseNanos) {
+                pausedUntil = now + pauseNanos;
+            }
+            outgoing.attempts++;
+            size++;
+            queued.incrementAndGet();
+            scheduleWake(pausedUntil);
+            if (chat == null) {
+                makeReady(outgoing);
+                return;
+            }
+            // Its sequence number puts it back ahead of the chat's later calls of the same priority
+            chat.calls.add(outgoing);
+            if (chat.tail == null) {
+                chat.tail = outgoing;
+            }
+            chat.inFlight = false;
+            refresh(chat, now);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMediaGroup;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.media.InputMedia;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Telegram Bot API client shared by all bots.
+ * One HTTP/2 client multiplexes the calls of every token over a few long-lived
+ * connections to the API host. JSON bodies are written by Jackson straight into
+ * request chunks, and photo uploads are streamed as multipart/form-data without
+ * buffering the file. Errors, including 429 with retry_after, surface as
+ * {@link TelegramApiRequestException} like they do in the telegrambots senders.
+ */
+@Slf4j
+@Component
+public class TelegramApiClient {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService httpExecutor;
+
+    /**
+     * Point this at a local stub server to run against something other than Telegram
+     */
+    @Value("${bot.api.base-url:https://api.telegram.org}")
+    private String baseUrl;
+
+    @Value("${bot.api.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${bot.api.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    @Value("${bot.api.upload-timeout-ms:60000}")
+    private long uploadTimeoutMs;
+
+    private HttpClient httpClient;
+
+    public TelegramApiClient(ObjectMapper objectMapper, ExecutorFactory executorFactory) {
+        // Telegram rejects some explicit nulls, e.g. "reply_markup": null
+        this.objectMapper = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.httpExecutor = executorFactory.newExecutor("bmf-telegram-http", 4);
+    }
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(httpExecutor)
+                .build();
+        log.info("Telegram API client using {}", baseUrl);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        httpExecutor.shutdown();
+    }
+
+    /**
+     * Execute a method with the default request timeout
+     *
+     * @param botToken Bot token
+     * @param method Method to execute
+     * @return Method result
+     * @throws TelegramApiException If the call fails or Telegram returns an error
+     */
+    public <T extends Serializable> T execute(String botToken, BotApiMethod<T> method) throws TelegramApiException {
+        return execute(botToken, method, Duration.ofMillis(requestTimeoutMs));
+    }
+
+    /**
+     * Execute a method
+     *
+     * @param botToken Bot token
+     * @param method Method to execute
+     * @param timeout Time allowed for the whole call
+     * @return Method result
+     * @throws TelegramApiException If the call fails or Telegram returns an error
+     */
+    public <T extends Serializable> T execute(String botToken, BotApiMethod<T> method, Duration timeout)
+            throws TelegramApiException {
+        method.validate();
+        HttpRequest request = HttpRequest.newBuilder(methodUri(botToken, method.getMethod()))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(writeJson(method)))
+                .build();
+        return method.deserializeResponse(send(request, method.getMethod()));
+    }
+
+    /**
+     * Send a photo with the upload timeout.
+     * A new file is streamed from disk or its input stream, a file_id or URL is sent as a plain field.
+     *
+     * @param botToken Bot token
+     * @param sendPhoto Method to execute
+     * @return Sent message
+     * @throws TelegramApiException If the call fails or Telegram returns an error
+     */
+    public Message execute(String botToken, SendPhoto sendPhoto) throws TelegramApiException {
+        sendPhoto.validate();
+        String boundary = "bmf-" + UUID.randomUUID();
+        Multipart body = new Multipart(boundary);
+
+        // SendPhoto has no JSON mapping of its own, the form fields are listed like the telegrambots senders do
+        body.field(SendPhoto.CHATID_FIELD, sendPhoto.getChatId());
+        body.field(SendPhoto.MESSAGETHREADID_FIELD, sendPhoto.getMessageThreadId());
+        body.field(SendPhoto.CAPTION_FIELD, sendPhoto.getCaption());
+        body.field(SendPhoto.PARSEMODE_FIELD, sendPhoto.getParseMode());
+        body.field(SendPhoto.DISABLENOTIFICATION_FIELD, sendPhoto.getDisableNotification());
+        body.field(SendPhoto.PROTECTCONTENT_FIELD, sendPhoto.getProtectContent());
+        body.field(SendPhoto.HASSPOILER_FIELD, sendPhoto.getHasSpoiler());
+        body.field(SendPhoto.REPLYTOMESSAGEID_FIELD, sendPhoto.getReplyToMessageId());
+        body.field(SendPhoto.ALLOWSENDINGWITHOUTREPLY_FIELD, sendPhoto.getAllowSendingWithoutReply());
+        // Nested objects go in as JSON
+        body.field(SendPhoto.REPLYMARKUP_FIELD, toJson(sendPhoto.getReplyMarkup()));
+        body.field(SendPhoto.REPLY_PARAMETERS_FIELD, toJson(sendPhoto.getReplyParameters()));
+        if (sendPhoto.getCaptionEntities() != null && !sendPhoto.getCaptionEntities().isEmpty()) {
+            body.field(SendPhoto.CAPTION_ENTITIES_FIELD, toJson(sendPhoto.getCaptionEntities()));
+        }
+
+        InputFile photo = sendPhoto.getPhoto();
+        if (photo.isNew()) {
+            body.file(SendPhoto.PHOTO_FIELD, photo.getMediaName(), mediaPart(photo));
+        } else {
+            body.field(SendPhoto.PHOTO_FIELD, photo.getAttachName());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(methodUri(botToken, sendPhoto.getMethod()))
+                .timeout(Duration.ofMillis(uploadTimeoutMs))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(body::stream))
+                .build();
+        return sendPhoto.deserializeResponse(send(request, sendPhoto.getMethod()));
+    }
+
+    /**
+     * Send an album of media that Telegram already has or can fetch by URL.
+     * New files are not supported in albums.
+     *
+     * @param botToken Bot token
+     * @param sendMediaGroup Method to execute
+     * @return Sent messages, in the order of the media
+     * @throws TelegramApiException If the call fails or Telegram returns an error
+     */
+    public List<Message> execute(String botToken, SendMediaGroup sendMediaGroup) throws TelegramApiException {
+        sendMediaGroup.validate();
+        if (sendMediaGroup.getMedias().stream().anyMatch(InputMedia::isNewMedia)) {
+            throw new TelegramApiException("Uploading new files in a media group is not supported");
+        }
+        HttpRequest request = HttpRequest.newBuilder(methodUri(botToken, sendMediaGroup.getMethod()))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(writeJson(sendMediaGroup)))
+                .build();
+        return sendMediaGroup.deserializeResponse(send(request, sendMediaGroup.getMethod()));
+    }
+
+    /**
+     * Call a method the telegrambots library has no usable class for
+     *
+     * @param botToken Bot token
+     * @param methodName Bot API method name, e.g. setWebhook
+     * @param parameters Method parameters
+     * @return The result field of the response
+     * @throws TelegramApiException If the call fails or Telegram returns an error
+     */
+    public JsonNode call(String botToken, String methodName, Map<String, ?> parameters) throws TelegramApiException {
+        HttpRequest request = HttpRequest.newBuilder(methodUri(botToken, methodName))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(writeJson(parameters)))
+                .build();
+
+        ApiResponse<JsonNode> response;
+        try {
+            response = objectMapper.readValue(send(request, methodName), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            throw new TelegramApiRequestException("Unable to deserialize response of " + methodName, e);
+        }
+        if (!Boolean.TRUE.equals(response.getOk())) {
+            throw new TelegramApiRequestException("Error calling " + methodName, response);
+        }
+        return response.getResult();
+    }
+
+    private String send(HttpRequest request, String methodName) throws TelegramApiException {
+        try {
+            HttpResponse<String> response = httpClient.send(request,
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            log.debug("Telegram {} returned {}", methodName, response.statusCode());
+            // Error statuses carry a JSON body too, it is parsed by the caller
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException("Interrupted calling " + methodName, e);
+        } catch (IOException | UncheckedIOException e) {
+            throw new TelegramApiException("Unable to call " + methodName, e);
+        }
+    }
+
+    private URI methodUri(String botToken, String methodName) {
+        return URI.create(baseUrl + "/bot" + botToken + "/" + methodName);
+    }
+
+    private List<byte[]> writeJson(Object value) throws TelegramApiException {
+        ChunkedOutputStream out = new ChunkedOutputStream();
+        try {
+            objectMapper.writeValue(out, value);
+        } catch (IOException e) {
+            throw new TelegramApiException("Unable to serialize " + value.getClass().getSimpleName(), e);
+        }
+        return out.chunks();
+    }
+
+    private String toJson(Object value) throws TelegramApiException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new TelegramApiException("Unable to serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Part mediaPart(InputFile file) {
+        if (file.getNewMediaFile() != null) {
+            return () -> {
+                try {
+                    return new FileInputStream(file.getNewMediaFile());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+        }
+        // The caller's stream can be read only once, a replayed body must fail instead of sending an empty file
+        AtomicBoolean opened = new AtomicBoolean();
+        return () -> opened.compareAndSet(false, true)
+                ? file.getNewMediaStream()
+                : new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Upload stream of " + file.getMediaName() + " was already sent");
+                    }
+                };
+    }
+
+    /**
+     * Collects serialized output in fixed-size chunks, so no intermediate String or
+     * contiguous copy of the body is made
+     */
+    private static final class ChunkedOutputStream extends OutputStream {
+        private final List<byte[]> chunks = new ArrayList<>();
+        private byte[] current = new byte[CHUNK_SIZE];
+        private int position;
+
+        @Override
+        public void write(int b) {
+            if (position == current.length) {
+                flushChunk();
+            }
+            current[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                if (position == current.length) {
+                    flushChunk();
+                }
+                int count = Math.min(length, current.length - position);
+                System.arraycopy(bytes, offset, current, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private void flushChunk() {
+            chunks.add(current);
+            current = new byte[CHUNK_SIZE];
+            position = 0;
+        }
+
+        List<byte[]> chunks() {
+            if (position > 0) {
+                byte[] last = new byte[position];
+                System.arraycopy(current, 0, last, 0, position);
+                chunks.add(last);
+                position = 0;
+            }
+            return chunks;
+        }
+    }
+
+    /**
+     * multipart/form-data body whose file parts are read lazily while the request is sent
+     */
+    private static final class Multipart {
+        private final String boundary;
+        private final List<Part> parts = new ArrayList<>();
+
+        private Multipart(String boundary) {
+            this.boundary = boundary;
+        }
+
+        void field(String name, Object value) {
+            if (value == null) {
+                return;
+            }
+            String header = "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n";
+            byte[] bytes = (header + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+            parts.add(() -> new ByteArrayInputStream(bytes));
+        }
+
+        void file(String name, String fileName, Part content) {
+            String header = "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                    + fileName.replace("\"", "%22") + "\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n\r\n";
+            byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+            parts.add(() -> new ByteArrayInputStream(headerBytes));
+            parts.add(content);
+            parts.add(() -> new ByteArrayInputStream("\r\n".getBytes(StandardCharsets.UTF_8)));
+        }
+
+        InputStream stream() {
+            List<Part> all = new ArrayList<>(parts);
+            all.add(() -> new ByteArrayInputStream(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8)));
+            Iterator<Part> it = all.iterator();
+            // Each part is only opened once the previous one has been sent
+            return new SequenceInputStream(new Enumeration<>() {
+                @Override
+                public boolean hasMoreElements() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public InputStream nextElement() {
+                    return it.next().open();
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Part {
+        InputStream open();
+    }
+}
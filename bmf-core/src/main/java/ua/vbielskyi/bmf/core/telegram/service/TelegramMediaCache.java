@@ -0,0 +1,176 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
+import ua.vbielskyi.bmf.core.cache.CacheService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the file_id Telegram assigned to an image sent by URL.
+ * file_ids are only valid for the bot that sent the image, so entries are kept per
+ * bot and image URL. Sending the file_id instead of the URL saves Telegram from
+ * fetching the image again and makes the send noticeably faster. An image replaced
+ * under the same URL must be dropped with {@link #invalidate(UUID, String)}. Other
+ * entries expire after {@code bot.media-cache.ttl-days}.
+ */
+@Slf4j
+@Component
+public class TelegramMediaCache {
+
+    private static final String KEY_PREFIX = "telegram:media:";
+
+    private final CacheService cacheService;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Value("${bot.media-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bot.media-cache.ttl-days:30}")
+    private long ttlDays;
+
+    public TelegramMediaCache(CacheService cacheService, MeterRegistry meterRegistry) {
+        this.cacheService = cacheService;
+        this.hitCounter = Counter.builder("bmf.telegram.media.cache")
+                .description("Images sent by file_id instead of URL")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("bmf.telegram.media.cache")
+                .description("Images sent by file_id instead of URL")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * URL of an image Telegram fetches itself, or null for uploads and file_ids
+     *
+     * @param file Media of a send method
+     * @return Image URL or null
+     */
+    public static String imageUrl(InputFile file) {
+        return file != null && !file.isNew() ? imageUrl(file.getAttachName()) : null;
+    }
+
+    /**
+     * The value if it is an http(s) URL, otherwise null
+     *
+     * @param media Media field of a send method
+     * @return Image URL or null
+     */
+    public static String imageUrl(String media) {
+        return media != null && (media.startsWith("https://") || media.startsWith("http://")) ? media : null;
+    }
+
+    /**
+     * Look up the file_id of an image
+     *
+     * @param botToken Bot token
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param imageUrl Image URL
+     * @return file_id if the bot has sent the image before
+     */
+    public Optional<String> getFileId(String botToken, UUID tenantId, String imageUrl) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        try {
+            String key = key(botToken, imageUrl);
+            Optional<String> fileId = tenantId == null
+                    ? cacheService.get(key, String.class)
+                    : cacheService.get(key, String.class, tenantId);
+            (fileId.isPresent() ? hitCounter : missCounter).increment();
+            return fileId;
+        } catch (Exception e) {
+            log.warn("Could not read media cache: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Record the file_id of an image Telegram has just fetched by URL
+     *
+     * @param botToken Bot token
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param imageUrl Image URL the message was sent with
+     * @param sent Message Telegram returned
+     */
+    public void put(String botToken, UUID tenantId, String imageUrl, Message sent) {
+        if (!enabled || sent == null || !sent.hasPhoto()) {
+            return;
+        }
+
+        // Sizes are listed smallest first, the last one is the original
+        List<PhotoSize> sizes = sent.getPhoto();
+        String fileId = sizes.get(sizes.size() - 1).getFileId();
+        try {
+            String key = key(botToken, imageUrl);
+            if (tenantId == null) {
+                cacheService.put(key, fileId, ttlDays, TimeUnit.DAYS);
+            } else {
+                cacheService.put(key, fileId, ttlDays, TimeUnit.DAYS, tenantId);
+            }
+        } catch (Exception e) {
+            log.warn("Could not write media cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the file_id a bot has for an image, e.g. when Telegram no longer accepts it
+     *
+     * @param botToken Bot token
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param imageUrl Image URL
+     */
+    public void evict(String botToken, UUID tenantId, String imageUrl) {
+        String key = key(botToken, imageUrl);
+        if (tenantId == null) {
+            cacheService.remove(key);
+        } else {
+            cacheService.remove(key, tenantId);
+        }
+    }
+
+    /**
+     * Drop the file_ids of an image for all bots of a tenant, for when a product
+     * image is replaced but keeps its URL
+     *
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param imageUrl Image URL
+     */
+    public void invalidate(UUID tenantId, String imageUrl) {
+        String pattern = KEY_PREFIX + "*:" + hash(imageUrl);
+        if (tenantId == null) {
+            cacheService.removeByPattern(pattern);
+        } else {
+            cacheService.removeByPattern(pattern, tenantId);
+        }
+    }
+
+    private static String key(String botToken, String imageUrl) {
+        return KEY_PREFIX + OutboundScheduler.botId(botToken) + ":" + hash(imageUrl);
+    }
+
+    private static String hash(String imageUrl) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(imageUrl.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-tenant admission control at the webhook edge.
+ * Every tenant has an adaptive concurrency limit covering its queued and running
+ * updates. The limit grows by one for each fast completion while it is in use and
+ * shrinks multiplicatively when updates run slower than the target latency or fail
+ * (AIMD), so one busy tenant cannot take over the instance. Over the limit, updates
+ * are shed by type: callback spinners and inline queries go first, ordinary messages
+ * get some headroom, and checkout traffic is only refused at the hard cap.
+ */
+@Slf4j
+@Component
+public class TenantAdmissionControl {
+
+    /**
+     * Shedding order of an update, lowest first
+     */
+    public enum Priority {
+        LOW(1.0),
+        NORMAL(1.5),
+        CRITICAL(Double.MAX_VALUE);
+
+        private final double headroom;
+
+        Priority(double headroom) {
+            this.headroom = headroom;
+        }
+    }
+
+    /**
+     * Slot held by an admitted update until it has been processed
+     */
+    public interface Permit {
+
+        /**
+         * Release the slot
+         *
+         * @param success Whether the update was processed without error
+         */
+        void release(boolean success);
+    }
+
+    private static final Permit UNLIMITED = success -> {
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final Map<UUID, TenantLimit> limits = new ConcurrentHashMap<>();
+
+    @Value("${bot.admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${bot.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${bot.admission.min-limit:2}")
+    private int minLimit;
+
+    @Value("${bot.admission.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${bot.admission.target-latency-ms:1000}")
+    private long targetLatencyMs;
+
+    @Value("${bot.admission.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    /**
+     * Callback data prefixes that belong to checkout and must not be shed early
+     */
+    @Value("${bot.admission.critical-callback-prefixes:checkout_,order_,pay_}")
+    private List<String> criticalCallbackPrefixes;
+
+    public TenantAdmissionControl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Try to admit an update
+     *
+     * @param tenantId Tenant ID
+     * @param update Telegram update
+     * @return Permit to release once the update is processed, or null if it was shed
+     */
+    public Permit tryAcquire(UUID tenantId, Update update) {
+        if (!enabled || tenantId == null) {
+            return UNLIMITED;
+        }
+
+        Priority priority = classify(update);
+        TenantLimit limit = limits.computeIfAbsent(tenantId, TenantLimit::new);
+        if (!limit.tryAcquire(priority)) {
+            limit.counter("shed", priority).increment();
+            log.debug("Shed {} update {} for tenant {}", priority, update.getUpdateId(), tenantId);
+            return null;
+        }
+
+        limit.counter("admitted", priority).increment();
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        return success -> {
+            if (released.compareAndSet(false, true)) {
+                limit.release(success, (System.nanoTime() - start) / 1_000_000);
+            }
+        };
+    }
+
+    /**
+     * Decide how readily an update may be shed
+     *
+     * @param update Telegram update
+     * @return Priority
+     */
+    public Priority classify(Update update) {
+        if (update.hasPreCheckoutQuery()) {
+            return Priority.CRITICAL;
+        }
+        if (update.hasCallbackQuery()) {
+            String data = update.getCallbackQuery().getData();
+            if (data != null && criticalCallbackPrefixes.stream().anyMatch(data::startsWith)) {
+                return Priority.CRITICAL;
+            }
+            // Losing one only leaves a spinner that Telegram clears on its own
+            return Priority.LOW;
+        }
+        if (update.hasMessage()) {
+            Message message = update.getMessage();
+            if (message.getWebAppData() != null || message.hasSuccessfulPayment()) {
+                return Priority.CRITICAL;
+            }
+            return Priority.NORMAL;
+        }
+        return Priority.LOW;
+    }
+
+    private final class TenantLimit {
+        private final String tenantTag;
+        private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+        private double limit = initialLimit;
+        private int inFlight;
+
+        private TenantLimit(UUID tenantId) {
+            this.tenantTag = tenantId.toString();
+        }
+
+        synchronized boolean tryAcquire(Priority priority) {
+            if (inFlight >= Math.min(maxLimit, limit * priority.headroom)) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        }
+
+        synchronized void release(boolean success, long latencyMs) {
+            boolean saturated = inFlight >= limit;
+            inFlight--;
+            if (!success || latencyMs > targetLatencyMs) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+
+        Counter counter(String outcome, Priority priority) {
+            return counters.computeIfAbsent(outcome + ":" + priority, k -> Counter.builder("bmf.telegram.admission")
+                    .description("Webhook updates admitted or shed per tenant")
+                    .tag("tenant", tenantTag)
+                    .tag("outcome", outcome)
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.core.telegram.model.BotType;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops webhook updates Telegram has already delivered.
+ * Each bot gets an in-memory window of its most recent update IDs. With Redis
+ * enabled, IDs are also claimed with SET NX so a redelivery routed to another
+ * node is caught as well. Redis failures let the update through.
+ */
+@Slf4j
+@Component
+public class UpdateDeduplicator {
+
+    private static final String REDIS_KEY_PREFIX = "bmf:telegram:update:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Counter duplicateCounter;
+
+    @Value("${bot.webhook.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bot.webhook.dedup.window-size:512}")
+    private int windowSize;
+
+    @Value("${bot.webhook.dedup.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${bot.webhook.dedup.redis.ttl-seconds:600}")
+    private long redisTtlSeconds;
+
+    // Windows of idle bots are dropped, they are rebuilt on the next update
+    private final Cache<String, Window> windows = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public UpdateDeduplicator(RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.duplicateCounter = Counter.builder("bmf.telegram.updates.duplicate")
+                .description("Webhook updates dropped as redeliveries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claim an update for processing
+     *
+     * @param botType Bot type
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param updateId Telegram update_id
+     * @return true if this is the first delivery, false for a duplicate
+     */
+    public boolean claim(BotType botType, UUID tenantId, Integer updateId) {
+        if (!enabled || updateId == null) {
+            return true;
+        }
+
+        String botKey = botKey(botType, tenantId);
+        if (!windows.get(botKey, k -> new Window(windowSize)).add(updateId)) {
+            return duplicate(botKey, updateId);
+        }
+
+        if (redisEnabled) {
+            try {
+                Boolean claimed = redisTemplate.opsForValue().setIfAbsent(redisKey(botKey, updateId), "1",
+                        redisTtlSeconds, TimeUnit.SECONDS);
+                if (Boolean.FALSE.equals(claimed)) {
+                    return duplicate(botKey, updateId);
+                }
+            } catch (Exception e) {
+                log.warn("Could not claim update {} for {} in Redis: {}", updateId, botKey, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Give up a claim so a redelivery of the update is processed,
+     * e.g. when the update was claimed but could not be queued
+     *
+     * @param botType Bot type
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param updateId Telegram update_id
+     */
+    public void release(BotType botType, UUID tenantId, Integer updateId) {
+        if (!enabled || updateId == null) {
+            return;
+        }
+
+        String botKey = botKey(botType, tenantId);
+        Window window = windows.getIfPresent(botKey);
+        if (window != null) {
+            window.remove(updateId);
+        }
+
+        if (redisEnabled) {
+            try {
+                redisTemplate.delete(redisKey(botKey, updateId));
+            } catch (Exception e) {
+                log.warn("Could not release update {} for {} in Redis: {}", updateId, botKey, e.getMessage());
+            }
+        }
+    }
+
+    private boolean duplicate(String botKey, Integer updateId) {
+        duplicateCounter.increment();
+        log.debug("Dropping duplicate update {} for {}", updateId, botKey);
+        return false;
+    }
+
+    private static String botKey(BotType botType, UUID tenantId) {
+        return tenantId == null ? botType.getValue() : botType.getValue() + ":" + tenantId;
+    }
+
+    private static String redisKey(String botKey, int updateId) {
+        return REDIS_KEY_PREFIX + botKey + ":" + updateId;
+    }
+
+    /**
+     * Ring of the last N update IDs with a set for constant-time lookups
+     */
+    private static final class Window {
+        private static final int EMPTY_SLOT = Integer.MIN_VALUE;
+
+        private final int[] ring;
+        private final Set<Integer> ids;
+        private int next;
+        private int size;
+
+        private Window(int capacity) {
+            this.ring = new int[capacity];
+            this.ids = new HashSet<>(capacity * 2);
+        }
+
+        synchronized boolean add(int updateId) {
+            if (!ids.add(updateId)) {
+                return false;
+            }
+            if (size == ring.length) {
+                ids.remove(ring[next]);
+            } else {
+                size++;
+            }
+            ring[next] = updateId;
+            next = (next + 1) % ring.length;
+            return true;
+        }
+
+        synchronized void remove(int updateId) {
+            if (!ids.remove(updateId)) {
+                return;
+            }
+            // Blank the slot so evicting it later cannot drop a newer claim of the same ID
+            for (int i = 0; i < size; i++) {
+                if (ring[i] == updateId) {
+                    ring[i] = EMPTY_SLOT;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ua.vbielskyi.bmf.common.context.TenantContext;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+import ua.vbielskyi.bmf.core.telegram.handler.BotHandler;
+import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
+import ua.vbielskyi.bmf.core.telegram.model.BotType;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes webhook updates off the request thread.
+ * Updates are sharded into single-threaded lanes by chat, so updates from one chat
+ * are handled in the order they arrived while different chats run in parallel.
+ * Replies are sent through {@link BotExecutor} instead of the webhook response; the lane
+ * moves on once a reply is queued, and the admission permit is released when it is sent.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UpdateDispatcher {
+
+    private final BotExecutor botExecutor;
+    private final ExecutorFactory executorFactory;
+
+    @Value("${bot.webhook.async.enabled:false}")
+    @Getter
+    private boolean asyncEnabled;
+
+    @Value("${bot.webhook.async.lanes:16}")
+    private int laneCount;
+
+    @Value("${bot.webhook.async.lane-capacity:1000}")
+    private int laneCapacity;
+
+    private ExecutorService[] lanes;
+
+    @PostConstruct
+    void init() {
+        if (!asyncEnabled) {
+            return;
+        }
+
+        lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(laneCapacity), executorFactory.threadFactory("bmf-update-lane-" + i));
+        }
+        log.info("Async webhook ingestion enabled: {} lane(s), capacity {}", laneCount, laneCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (lanes == null) {
+            return;
+        }
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue an update for processing
+     *
+     * @param handler Handler resolved for the bot
+     * @param update Telegram update
+     * @param botType Bot type
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param permit Admission permit, released once the update has been processed
+     * @return false if the lane is full and the update should be retried by Telegram
+     */
+    public boolean dispatch(BotHandler handler, Update update, BotType botType, UUID tenantId,
+                            TenantAdmissionControl.Permit permit) {
+        ExecutorService lane = lanes[Math.floorMod(Objects.hash(botType, tenantId, laneKey(update)), lanes.length)];
+        try {
+            lane.execute(() -> process(handler, update, botType, tenantId, permit));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Update lane full, rejecting update {} for tenant {}", update.getUpdateId(), tenantId);
+            return false;
+        }
+    }
+
+    private void process(BotHandler handler, Update update, BotType botType, UUID tenantId,
+                         TenantAdmissionControl.Permit permit) {
+        CompletableFuture<Void> sent = CompletableFuture.completedFuture(null);
+        try {
+            BotApiMethod<?> method = handler.handleUpdate(update, tenantId);
+            if (method != null) {
+                // Not waited for here: the reply may sit behind chat pacing or a 429 pause,
+                // which must not hold up the other chats sharing this lane
+                sent = botExecutor.executeAsync(BotResponse.builder().method(method).build(), botType, tenantId);
+            }
+        } catch (Exception e) {
+            log.error("Error processing update {} for tenant {}", update.getUpdateId(), tenantId, e);
+            sent = CompletableFuture.failedFuture(e);
+        } finally {
+            TenantContext.clear();
+        }
+        // The tenant keeps its admission slot until the reply is out
+        sent.whenComplete((ignored, e) -> permit.release(e == null));
+    }
+
+    /**
+     * Key that keeps related updates in one lane: the chat if there is one, otherwise the user
+     */
+    private static Long laneKey(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        } else if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId();
+        } else if (update.hasCallbackQuery()) {
+            return update.getCallbackQuery().getMessage() != null
+                    ? update.getCallbackQuery().getMessage().getChatId()
+                    : update.getCallbackQuery().getFrom().getId();
+        } else if (update.hasInlineQuery()) {
+            return update.getInlineQuery().getFrom().getId();
+        } else if (update.hasMyChatMember()) {
+            return update.getMyChatMember().getChat().getId();
+        }
+        return update.getUpdateId() == null ? 0L : update.getUpdateId().longValue();
+    }
+}
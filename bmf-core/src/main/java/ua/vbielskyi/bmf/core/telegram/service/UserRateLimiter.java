@@ -0,0 +1,103 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ua.vbielskyi.bmf.core.ratelimit.RateLimit;
+import ua.vbielskyi.bmf.core.ratelimit.RateLimiter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Limits how fast a Telegram user can drive a bot.
+ * Every (tenant, user) pair has a bucket with the tenant's limit, or the default.
+ * Commands with their own limit additionally draw from a per-command bucket.
+ */
+@Slf4j
+@Component
+public class UserRateLimiter {
+
+    private final RateLimiter rateLimiter;
+
+    @Value("${bot.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bot.rate-limit.default:60,60}")
+    private String defaultSpec;
+
+    /**
+     * Tenant overrides, value is "requests,seconds".
+     * Example: bot.rate-limit.tenants={'3f1c...':'120,60'}
+     */
+    @Value("#{${bot.rate-limit.tenants:{:}}}")
+    private Map<String, String> tenantSpecs;
+
+    /**
+     * Command limits, value is "requests,seconds".
+     * Command names match CommandHandler.getCommand(), without the slash.
+     * Example: bot.rate-limit.commands={'start':'5,60','register':'3,60'}
+     */
+    @Value("#{${bot.rate-limit.commands:{:}}}")
+    private Map<String, String> commandSpecs;
+
+    private RateLimit defaultLimit;
+    private final Map<UUID, RateLimit> tenantLimits = new HashMap<>();
+    private final Map<String, RateLimit> commandLimits = new HashMap<>();
+
+    public UserRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @PostConstruct
+    void init() {
+        defaultLimit = RateLimit.parse(defaultSpec);
+        tenantSpecs.forEach((tenantId, spec) -> tenantLimits.put(UUID.fromString(tenantId), RateLimit.parse(spec)));
+        commandSpecs.forEach((command, spec) -> commandLimits.put(command, RateLimit.parse(spec)));
+        log.info("User rate limit: default {}/{}s, {} tenant override(s), {} command limit(s)",
+                defaultLimit.capacity(), defaultLimit.period().toSeconds(), tenantLimits.size(), commandLimits.size());
+    }
+
+    /**
+     * Check an update against the sender's limits
+     *
+     * @param tenantId Tenant ID (null for admin bot)
+     * @param userId Telegram user ID
+     * @param update Telegram update
+     * @return true if the update may be processed
+     */
+    public boolean tryAcquire(UUID tenantId, Long userId, Update update) {
+        if (!enabled || userId == null) {
+            return true;
+        }
+
+        String userKey = "user:" + (tenantId == null ? "admin" : tenantId) + ":" + userId;
+        String command = extractCommand(update);
+        if (command != null) {
+            RateLimit commandLimit = commandLimits.get(command);
+            if (commandLimit != null && !rateLimiter.tryAcquire(userKey + ":" + command, commandLimit)) {
+                return false;
+            }
+        }
+
+        RateLimit limit = tenantId == null ? defaultLimit : tenantLimits.getOrDefault(tenantId, defaultLimit);
+        return rateLimiter.tryAcquire(userKey, limit);
+    }
+
+    private static String extractCommand(Update update) {
+        if (!update.hasMessage() || !update.getMessage().hasText()) {
+            return null;
+        }
+        String text = update.getMessage().getText();
+        if (!text.startsWith("/")) {
+            return null;
+        }
+        int end = text.indexOf(' ');
+        String command = end < 0 ? text.substring(1) : text.substring(1, end);
+        int botName = command.indexOf('@');
+        return botName < 0 ? command : command.substring(0, botName);
+    }
+}
@@ -0,0 +1,38 @@
+package ua.vbielskyi.bmf.core.telegram.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.stereotype.Component;
+import ua.vbielskyi.bmf.core.event.RedisEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Feeds bot configuration change events into the local registry snapshot.
+ * The registry is resolved lazily because it depends on Redis beans that are
+ * created together with the listener container.
+ */
+@Component
+@RequiredArgsConstructor
+public class BotConfigChangeListener implements RedisEventListener {
+
+    private final ObjectProvider<CachedBotRegistry> botRegistry;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CachedBotRegistry registry = botRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        registry.onConfigChange(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Collection<ChannelTopic> getChannels() {
+        return List.of(new ChannelTopic(CachedBotRegistry.CONFIG_CHANGE_CHANNEL));
+    }
+}
@@ -1,11 +1,17 @@
 package ua.vbielskyi.bmf.core.telegram.service.impl;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import ua.vbielskyi.bmf.core.cache.CacheService;
 import ua.vbielskyi.bmf.core.telegram.exception.BotRegistryException;
@@ -14,43 +20,124 @@ import ua.vbielskyi.bmf.core.telegram.handler.BotHandler;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-
+import java.util.function.Consumer;
+
+/**
+ * Bot registry backed by Redis.
+ * Redis holds the source of truth; every node serves lookups from an immutable
+ * in-memory snapshot keyed by (bot type, tenant) and by token. The snapshot is
+ * updated from change events published on {@link #CONFIG_CHANGE_CHANNEL} and
+ * rebuilt from Redis periodically in case an event was missed. A bot the snapshot
+ * does not know is looked up in Redis, and the miss is cached for
+ * {@code bot.cache.negative-expiration} seconds.
+ * <p>
+ * Configurations used to be stored as JSON strings. Those are still read, and are
+ * rewritten as objects the first time they are found.
+ */
 @Slf4j
 @Service
 public class CachedBotRegistry implements BotRegistry {
 
+    /**
+     * Redis pub/sub channel carrying bot configuration changes
+     */
+    public static final String CONFIG_CHANGE_CHANNEL = "bmf:bot:config:changes";
+
     private static final String BOT_CONFIG_KEY_PREFIX = "bmf:bot:config:";
     private static final String BOT_TOKEN_KEY_PREFIX = "bmf:bot:token:";
-    private static final String TENANT_BOTS_KEY = "bmf:tenant:bots";
+    private static final String TENANT_BOT_INDEX_KEY = "bmf:tenant:bot-index";
+    // JSON list of tenant IDs kept in the general cache before the index became a set
+    private static final String LEGACY_TENANT_BOTS_KEY = "bmf:tenant:bots";
 
     @Value("${bot.cache.expiration:86400}")
     private long cacheExpiration; // Default: 24 hours
 
+    @Value("${bot.cache.negative-expiration:30}")
+    private long negativeCacheExpiration;
+
+    @Value("${bot.registry.scan-page-size:500}")
+    private int scanPageSize;
+
     private final List<BotHandler> handlers = new CopyOnWriteArrayList<>();
+    // Dispatch tables, replaced wholesale on registration so lookups never lock or allocate
+    private volatile Map<BotType, BotHandler> handlersByType = new EnumMap<>(BotType.class);
+    private volatile Map<BotType, Map<UUID, BotHandler>> tenantHandlers = new EnumMap<>(BotType.class);
     private final CacheService cacheService;
+    private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
 
-    public CachedBotRegistry(CacheService cacheService, ObjectMapper objectMapper) {
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Bumped on every applied change; with the version of each changed key, a slow
+    // reconciliation keeps changes made while it was scanning instead of overwriting them
+    private long version;
+    private final Map<BotKey, Long> keyVersions = new HashMap<>();
+    // Changes collected while a batch is open, swapped in as one snapshot when it closes
+    private Map<BotKey, BotConfig> pending;
+    private volatile int batchDepth;
+
+    public CachedBotRegistry(CacheService cacheService, RedisTemplate<String, String> redisTemplate,
+                             ObjectMapper objectMapper) {
         this.cacheService = cacheService;
+        this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
     }
 
+    @PostConstruct
+    void init() {
+        migrateLegacyTenantsList();
+        reconcile();
+    }
+
     @Override
     public void registerHandler(BotHandler handler) {
         if (handler == null) {
             throw new IllegalArgumentException("Handler cannot be null");
         }
 
-        handlers.add(handler);
+        synchronized (handlers) {
+            handlers.add(handler);
+            if (!handlersByType.containsKey(handler.getBotType())) {
+                // The first handler registered for a type stays the default, as with the old linear scan
+                Map<BotType, BotHandler> byType = new EnumMap<>(BotType.class);
+                byType.putAll(handlersByType);
+                byType.put(handler.getBotType(), handler);
+                handlersByType = byType;
+            }
+        }
         log.info("Registered bot handler for type: {}", handler.getBotType());
     }
 
+    @Override
+    public void registerHandler(BotHandler handler, UUID tenantId) {
+        if (handler == null) {
+            throw new IllegalArgumentException("Handler cannot be null");
+        }
+        if (tenantId == null) {
+            throw new IllegalArgumentException("Tenant ID cannot be null");
+        }
+
+        synchronized (handlers) {
+            handlers.add(handler);
+            Map<BotType, Map<UUID, BotHandler>> byTenant = new EnumMap<>(BotType.class);
+            byTenant.putAll(tenantHandlers);
+            Map<UUID, BotHandler> overrides = new HashMap<>(byTenant.getOrDefault(handler.getBotType(), Map.of()));
+            overrides.put(tenantId, handler);
+            byTenant.put(handler.getBotType(), overrides);
+            tenantHandlers = byTenant;
+        }
+        log.info("Registered bot handler for type: {}, tenant: {}", handler.getBotType(), tenantId);
+    }
+
     @Override
     public BotHandler findHandler(BotType botType, UUID tenantId) {
         if (botType == null) {
@@ -72,15 +159,17 @@ public class CachedBotRegistry implements BotRegistry {
             }
         }
 
-        // Find handler that can handle this request
-        for (BotHandler handler : handlers) {
-            if (handler.canHandle(botType, tenantId)) {
-                return handler;
-            }
-        }
+        return lookupHandler(botType, tenantId);
+    }
 
-        log.warn("No handler found for botType: {}, tenantId: {}", botType, tenantId);
-        return null;
+    /**
+     * Find a handler for a configuration the caller has already looked up and checked
+     *
+     * @param config Active bot configuration
+     * @return Handler or null if none found
+     */
+    public BotHandler findHandler(BotConfig config) {
+        return lookupHandler(config.getBotType(), config.getTenantId());
     }
 
     @Override
@@ -104,27 +193,30 @@ public class CachedBotRegistry implements BotRegistry {
             validateBotParameters(botType, token, username, webhookUrl);
 
             BotConfig config = new BotConfig(botType, token, username, webhookUrl, tenantId);
-            String json = objectMapper.writeValueAsString(config);
+            BotConfig previous = getBotConfig(botType, tenantId);
 
             // Store in cache
             String configKey = getBotConfigKey(botType, tenantId);
             String tokenKey = BOT_TOKEN_KEY_PREFIX + token;
 
-            cacheService.put(configKey, json, cacheExpirationSeconds == null ? cacheExpiration
-                    : cacheExpirationSeconds, TimeUnit.SECONDS);
-            cacheService.put(tokenKey, json, cacheExpirationSeconds == null ? cacheExpiration
-                    : cacheExpirationSeconds, TimeUnit.SECONDS);
+            long expiration = cacheExpirationSeconds == null ? cacheExpiration : cacheExpirationSeconds;
+            cacheService.executeBatch(batch -> {
+                batch.put(configKey, config, expiration, TimeUnit.SECONDS)
+                        .put(tokenKey, config, expiration, TimeUnit.SECONDS);
+                if (previous != null && !previous.getToken().equals(token)) {
+                    batch.remove(BOT_TOKEN_KEY_PREFIX + previous.getToken());
+                }
+            });
 
             // For tenant bots, add to the list of tenant bots
             if (tenantId != null) {
-                updateTenantsList(tenantId, true);
+                updateTenantIndex(tenantId, true);
             }
 
+            publishChange(new BotKey(botType, tenantId), config);
+
             log.info("Registered bot: {} for tenant: {}", username, tenantId);
             return true;
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize bot config", e);
-            throw new BotRegistryException("Failed to serialize bot config", e);
         } catch (Exception e) {
             log.error("Error registering bot", e);
             throw new BotRegistryException("Error registering bot", e);
@@ -151,14 +243,17 @@ public class CachedBotRegistry implements BotRegistry {
             String configKey = getBotConfigKey(config.getBotType(), config.getTenantId());
             String tokenKey = BOT_TOKEN_KEY_PREFIX + token;
 
-            cacheService.remove(configKey);
-            cacheService.remove(tokenKey);
+            cacheService.executeBatch(batch -> batch
+                    .remove(configKey)
+                    .remove(tokenKey));
 
             // For tenant bots, remove from the list of tenant bots
             if (config.getTenantId() != null) {
-                updateTenantsList(config.getTenantId(), false);
+                updateTenantIndex(config.getTenantId(), false);
             }
 
+            publishChange(new BotKey(config.getBotType(), config.getTenantId()), null);
+
             log.info("Unregistered bot for tenant: {}", tenantId);
             return true;
         } catch (Exception e) {
@@ -177,27 +272,25 @@ public class CachedBotRegistry implements BotRegistry {
      */
     public boolean updateBotActiveStatus(BotType botType, UUID tenantId, boolean active) {
         try {
-            BotConfig config = getBotConfig(botType, tenantId);
-            if (config == null) {
+            BotConfig current = getBotConfig(botType, tenantId);
+            if (current == null) {
                 log.warn("No bot configuration found for botType: {}, tenantId: {}", botType, tenantId);
                 return false;
             }
 
-            config.setActive(active);
-
-            String json = objectMapper.writeValueAsString(config);
+            BotConfig config = current.withActive(active);
             String configKey = getBotConfigKey(botType, tenantId);
             String tokenKey = BOT_TOKEN_KEY_PREFIX + config.getToken();
 
-            cacheService.put(configKey, json, cacheExpiration, TimeUnit.SECONDS);
-            cacheService.put(tokenKey, json, cacheExpiration, TimeUnit.SECONDS);
+            cacheService.executeBatch(batch -> batch
+                    .put(configKey, config, cacheExpiration, TimeUnit.SECONDS)
+                    .put(tokenKey, config, cacheExpiration, TimeUnit.SECONDS));
+
+            publishChange(new BotKey(botType, tenantId), config);
 
             log.info("Updated bot active status to {} for botType: {}, tenantId: {}",
                     active, botType, tenantId);
             return true;
-        } catch (JsonProcessingException e) {
-            log.error("Failed to serialize bot config", e);
-            throw new BotRegistryException("Failed to serialize bot config", e);
         } catch (Exception e) {
             log.error("Error updating bot active status", e);
             throw new BotRegistryException("Error updating bot active status", e);
@@ -205,100 +298,351 @@ public class CachedBotRegistry implements BotRegistry {
     }
 
     /**
-     * Get a bot configuration by bot type and tenant ID
+     * Get a bot configuration by bot type and tenant ID.
+     * Served from the local snapshot; only bots the snapshot does not know are looked up in Redis.
      *
      * @param botType Bot type
      * @param tenantId Tenant ID
      * @return Bot configuration or null if not found
      */
     public BotConfig getBotConfig(BotType botType, UUID tenantId) {
-        try {
-            String configKey = getBotConfigKey(botType, tenantId);
-            return cacheService.get(configKey, String.class)
-                    .map(this::deserializeBotConfig)
-                    .orElse(null);
-        } catch (Exception e) {
-            log.error("Error getting bot config", e);
-            return null;
-        }
+        BotKey key = new BotKey(botType, tenantId);
+        BotConfig config = batchDepth > 0 ? batchedConfig(key) : snapshot.byBot().get(key);
+        return config != null ? config : lookupMissing(key);
+    }
+
+    private synchronized BotConfig batchedConfig(BotKey key) {
+        return (pending != null ? pending : snapshot.byBot()).get(key);
     }
 
     /**
-     * Get a bot configuration by token
+     * Get a bot configuration by token.
+     * Served from the local snapshot, never from Redis.
      *
      * @param token Bot token
      * @return Bot configuration or null if not found
      */
     public BotConfig getBotConfigByToken(String token) {
-        try {
-            String tokenKey = BOT_TOKEN_KEY_PREFIX + token;
-            return cacheService.get(tokenKey, String.class)
-                    .map(this::deserializeBotConfig)
-                    .orElse(null);
-        } catch (Exception e) {
-            log.error("Error getting bot config by token", e);
-            return null;
-        }
+        return token == null ? null : snapshot.byToken().get(token);
     }
 
     /**
-     * Get all tenant bot configurations
+     * Get all tenant bot configurations from the local snapshot.
+     * Use {@link #scanTenantBotConfigs(Consumer)} to page through Redis instead.
      *
      * @return Map of tenant IDs to bot configurations
      */
     public Map<UUID, BotConfig> getAllTenantBotConfigs() {
         Map<UUID, BotConfig> result = new HashMap<>();
+        snapshot.byBot().forEach((key, config) -> {
+            if (key.botType() == BotType.TENANT && key.tenantId() != null) {
+                result.put(key.tenantId(), config);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Rebuild the snapshot from Redis.
+     * Picks up changes whose events were missed, e.g. while this node was disconnected.
+     */
+    @Scheduled(fixedDelayString = "${bot.registry.reconcile-interval-ms:60000}",
+            initialDelayString = "${bot.registry.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
 
         try {
-            // Get the list of tenant IDs
-            List<UUID> tenantIds = cacheService.get(TENANT_BOTS_KEY, String.class)
-                    .map(this::deserializeTenantsList)
-                    .orElse(new ArrayList<>());
+            Map<String, BotKey> keys = new LinkedHashMap<>();
+            for (BotType botType : BotType.values()) {
+                keys.put(getBotConfigKey(botType, null), new BotKey(botType, null));
+            }
 
-            for (UUID tenantId : tenantIds) {
-                BotConfig config = getBotConfig(BotType.TENANT, tenantId);
-                if (config != null) {
-                    result.put(tenantId, config);
+            Map<BotKey, BotConfig> byBot = new HashMap<>();
+            readConfigs(keys.keySet())
+                    .forEach((configKey, config) -> byBot.put(keys.get(configKey), config));
+            scanTenantBotConfigs(page -> page.forEach((tenantId, config) ->
+                    byBot.put(new BotKey(BotType.TENANT, tenantId), config)));
+
+            synchronized (this) {
+                // Changes applied after the scan started win over what it read
+                Map<BotKey, BotConfig> current = pending != null ? pending : snapshot.byBot();
+                keyVersions.forEach((key, changedAt) -> {
+                    if (changedAt > startVersion) {
+                        BotConfig config = current.get(key);
+                        if (config != null) {
+                            byBot.put(key, config);
+                        } else {
+                            byBot.remove(key);
+                        }
+                    }
+                });
+                keyVersions.values().removeIf(changedAt -> changedAt <= startVersion);
+
+                if (batchDepth > 0) {
+                    pending = byBot;
+                } else {
+                    snapshot = Snapshot.of(byBot);
                 }
             }
+            log.debug("Reconciled bot config snapshot: {} bot(s)", byBot.size());
         } catch (Exception e) {
-            log.error("Error getting all tenant bot configs", e);
+            log.error("Error reconciling bot config snapshot", e);
         }
+    }
 
-        return result;
+    /**
+     * Run registrations and other changes with a single snapshot swap at the end,
+     * instead of copying the snapshot once per change. Redis is updated as usual, and
+     * {@link #getBotConfig} sees the batched changes; lookups by token see them once
+     * the batch closes. Batches may nest.
+     *
+     * @param updates Changes to apply
+     */
+    public void batchUpdates(Runnable updates) {
+        synchronized (this) {
+            batchDepth++;
+        }
+        try {
+            updates.run();
+        } finally {
+            synchronized (this) {
+                if (--batchDepth == 0 && pending != null) {
+                    snapshot = Snapshot.of(pending);
+                    pending = null;
+                }
+            }
+        }
     }
 
     /**
-     * Update the list of tenant bots
+     * Stream tenant bot configurations from Redis page by page.
+     * The tenant index is iterated with SSCAN and each page of configurations
+     * is fetched with one MGET, so memory use does not grow with the number of tenants.
+     *
+     * @param pageConsumer Receives tenant IDs mapped to their configurations, one page at a time
+     */
+    public void scanTenantBotConfigs(Consumer<Map<UUID, BotConfig>> pageConsumer) {
+        ScanOptions options = ScanOptions.scanOptions().count(scanPageSize).build();
+        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(TENANT_BOT_INDEX_KEY, options)) {
+            List<UUID> page = new ArrayList<>(scanPageSize);
+            while (cursor.hasNext()) {
+                page.add(UUID.fromString(cursor.next()));
+                if (page.size() >= scanPageSize) {
+                    pageConsumer.accept(loadTenantBotConfigs(page));
+                    page.clear();
+                }
+            }
+            if (!page.isEmpty()) {
+                pageConsumer.accept(loadTenantBotConfigs(page));
+            }
+        }
+    }
+
+    /**
+     * Apply a configuration change published by any node, this one included
+     *
+     * @param message Change event payload
+     */
+    void onConfigChange(String message) {
+        try {
+            ConfigChange change = objectMapper.readValue(message, ConfigChange.class);
+            apply(new BotKey(change.botType(), change.tenantId()), change.config());
+        } catch (JsonProcessingException e) {
+            log.error("Malformed bot config change event, reconciling", e);
+            reconcile();
+        }
+    }
+
+    /**
+     * Look up a bot the snapshot does not know, in case its change event was missed.
+     * A miss is remembered briefly so that webhooks for unknown tenants are answered
+     * from the near cache; registerBot overwrites the marker. A configuration still in
+     * the legacy string form is stored again as an object.
+     *
+     * @param key Bot key
+     * @return Bot configuration or null if not found
+     */
+    private BotConfig lookupMissing(BotKey key) {
+        try {
+            String configKey = getBotConfigKey(key.botType(), key.tenantId());
+            Optional<BotConfig> config = cacheService.getOrElseComputeOptional(
+                    configKey, BotConfig.class, () -> readLegacyConfig(configKey),
+                    cacheExpiration, negativeCacheExpiration, TimeUnit.SECONDS);
+            config.ifPresent(found -> apply(key, found));
+            return config.orElse(null);
+        } catch (Exception e) {
+            log.error("Error looking up bot config for {}", key, e);
+            return null;
+        }
+    }
+
+    private BotHandler lookupHandler(BotType botType, UUID tenantId) {
+        if (tenantId != null) {
+            Map<UUID, BotHandler> overrides = tenantHandlers.get(botType);
+            BotHandler handler = overrides != null ? overrides.get(tenantId) : null;
+            if (handler != null) {
+                return handler;
+            }
+        }
+
+        BotHandler handler = handlersByType.get(botType);
+        if (handler != null && handler.canHandle(botType, tenantId)) {
+            return handler;
+        }
+
+        log.warn("No handler found for botType: {}, tenantId: {}", botType, tenantId);
+        return null;
+    }
+
+    /**
+     * Apply a change locally and tell the other nodes about it
+     *
+     * @param key Bot key
+     * @param config New configuration, or null if the bot was removed
+     */
+    private void publishChange(BotKey key, BotConfig config) {
+        apply(key, config);
+        try {
+            String message = objectMapper.writeValueAsString(
+                    new ConfigChange(key.botType(), key.tenantId(), config));
+            redisTemplate.convertAndSend(CONFIG_CHANGE_CHANNEL, message);
+        } catch (Exception e) {
+            // Other nodes catch up on their next reconciliation
+            log.warn("Failed to publish bot config change for {}", key, e);
+        }
+    }
+
+    private synchronized void apply(BotKey key, BotConfig config) {
+        Map<BotKey, BotConfig> byBot;
+        if (batchDepth > 0) {
+            if (pending == null) {
+                pending = new HashMap<>(snapshot.byBot());
+            }
+            byBot = pending;
+        } else {
+            byBot = new HashMap<>(snapshot.byBot());
+        }
+
+        if (config != null) {
+            byBot.put(key, config);
+        } else {
+            byBot.remove(key);
+        }
+        if (byBot != pending) {
+            snapshot = Snapshot.of(byBot);
+        }
+        keyVersions.put(key, ++version);
+    }
+
+    /**
+     * Add or remove a tenant in the bot index
      *
      * @param tenantId Tenant ID
      * @param add Whether to add or remove
      */
-    private void updateTenantsList(UUID tenantId, boolean add) {
+    private void updateTenantIndex(UUID tenantId, boolean add) {
         try {
-            List<UUID> tenantIds = cacheService.get(TENANT_BOTS_KEY, String.class)
-                    .map(this::deserializeTenantsList)
-                    .orElse(new ArrayList<>());
-
-            boolean changed = false;
-            if (add && !tenantIds.contains(tenantId)) {
-                tenantIds.add(tenantId);
-                changed = true;
-            } else if (!add) {
-                changed = tenantIds.remove(tenantId);
+            if (add) {
+                redisTemplate.opsForSet().add(TENANT_BOT_INDEX_KEY, tenantId.toString());
+            } else {
+                redisTemplate.opsForSet().remove(TENANT_BOT_INDEX_KEY, tenantId.toString());
             }
+            log.debug("Updated tenant bot index, operation: {}, tenant: {}", add ? "add" : "remove", tenantId);
+        } catch (Exception e) {
+            log.error("Error updating tenant bot index", e);
+            throw new BotRegistryException("Error updating tenant bot index", e);
+        }
+    }
 
-            if (changed) {
-                String json = objectMapper.writeValueAsString(tenantIds);
-                cacheService.put(TENANT_BOTS_KEY, json, cacheExpiration, TimeUnit.SECONDS);
-                log.debug("Updated tenant list, operation: {}, tenant: {}", add ? "add" : "remove", tenantId);
+    private Map<UUID, BotConfig> loadTenantBotConfigs(List<UUID> tenantIds) {
+        List<String> configKeys = tenantIds.stream()
+                .map(tenantId -> getBotConfigKey(BotType.TENANT, tenantId))
+                .toList();
+        Map<String, BotConfig> configs = readConfigs(configKeys);
+
+        Map<UUID, BotConfig> result = new HashMap<>();
+        for (int i = 0; i < tenantIds.size(); i++) {
+            BotConfig config = configs.get(configKeys.get(i));
+            if (config != null) {
+                result.put(tenantIds.get(i), config);
             }
+        }
+        return result;
+    }
+
+    /**
+     * Read configurations with one MGET, plus one for keys that may still hold the
+     * legacy string form. Legacy configurations found are rewritten as objects.
+     *
+     * @param configKeys Configuration cache keys
+     * @return Configurations by cache key
+     */
+    private Map<String, BotConfig> readConfigs(Collection<String> configKeys) {
+        Map<String, BotConfig> configs = new HashMap<>(cacheService.getAll(configKeys, BotConfig.class));
+        List<String> unreadKeys = configKeys.stream()
+                .filter(configKey -> !configs.containsKey(configKey))
+                .toList();
+        if (unreadKeys.isEmpty()) {
+            return configs;
+        }
+
+        Map<String, BotConfig> legacy = new HashMap<>();
+        cacheService.getAll(unreadKeys, String.class).forEach((configKey, json) -> {
+            BotConfig config = deserializeLegacyConfig(json);
+            if (config != null) {
+                legacy.put(configKey, config);
+            }
+        });
+        if (!legacy.isEmpty()) {
+            cacheService.executeBatch(batch -> legacy.forEach((configKey, config) -> batch
+                    .put(configKey, config, cacheExpiration, TimeUnit.SECONDS)
+                    .put(BOT_TOKEN_KEY_PREFIX + config.getToken(), config, cacheExpiration, TimeUnit.SECONDS)));
+            configs.putAll(legacy);
+            log.info("Rewrote {} bot config(s) stored in the legacy string form", legacy.size());
+        }
+        return configs;
+    }
+
+    /**
+     * Read a configuration stored in the legacy string form
+     *
+     * @param configKey Configuration cache key
+     * @return Configuration, or empty if there is none in that form
+     */
+    private Optional<BotConfig> readLegacyConfig(String configKey) {
+        return cacheService.get(configKey, String.class).map(this::deserializeLegacyConfig);
+    }
+
+    private BotConfig deserializeLegacyConfig(String json) {
+        try {
+            return objectMapper.readValue(json, BotConfig.class);
         } catch (JsonProcessingException e) {
-            log.error("Failed to serialize tenant list", e);
-            throw new BotRegistryException("Failed to serialize tenant list", e);
+            log.error("Failed to deserialize legacy bot config", e);
+            return null;
+        }
+    }
+
+    /**
+     * Move tenants from the old JSON list into the index set, once
+     */
+    private void migrateLegacyTenantsList() {
+        try {
+            List<UUID> tenantIds = cacheService.get(LEGACY_TENANT_BOTS_KEY, String.class)
+                    .map(this::deserializeTenantsList)
+                    .orElse(List.of());
+            if (tenantIds.isEmpty()) {
+                return;
+            }
+
+            redisTemplate.opsForSet().add(TENANT_BOT_INDEX_KEY,
+                    tenantIds.stream().map(UUID::toString).toArray(String[]::new));
+            cacheService.remove(LEGACY_TENANT_BOTS_KEY);
+            log.info("Migrated {} tenant(s) to the tenant bot index", tenantIds.size());
         } catch (Exception e) {
-            log.error("Error updating tenant list", e);
-            throw new BotRegistryException("Error updating tenant list", e);
+            log.error("Error migrating legacy tenant bot list", e);
         }
     }
 
@@ -331,21 +675,6 @@ public class CachedBotRegistry implements BotRegistry {
         }
     }
 
-    /**
-     * Deserialize a bot configuration from JSON
-     *
-     * @param json JSON string
-     * @return Bot configuration or null if deserialization fails
-     */
-    private BotConfig deserializeBotConfig(String json) {
-        try {
-            return objectMapper.readValue(json, BotConfig.class);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to deserialize bot config", e);
-            return null;
-        }
-    }
-
     /**
      * Deserialize a list of tenant IDs from JSON
      *
@@ -378,34 +707,79 @@ public class CachedBotRegistry implements BotRegistry {
     }
 
     /**
-     * Bot configuration class
+     * Snapshot lookup key
+     */
+    record BotKey(BotType botType, UUID tenantId) {
+    }
+
+    /**
+     * Change event published on {@link #CONFIG_CHANGE_CHANNEL}; a null config means the bot was removed
+     */
+    record ConfigChange(BotType botType, UUID tenantId, BotConfig config) {
+    }
+
+    private record Snapshot(Map<BotKey, BotConfig> byBot, Map<String, BotConfig> byToken) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+
+        static Snapshot of(Map<BotKey, BotConfig> byBot) {
+            Map<String, BotConfig> byToken = new HashMap<>();
+            byBot.values().forEach(config -> {
+                if (config.getToken() != null) {
+                    byToken.put(config.getToken(), config);
+                }
+            });
+            return new Snapshot(Map.copyOf(byBot), Map.copyOf(byToken));
+        }
+    }
+
+    /**
+     * Bot configuration class. Instances are shared through the snapshot and never mutated.
      */
-    @Setter
     @Getter
     public static class BotConfig {
-        private BotType botType;
-        private String token;
-        private String username;
-        private String webhookUrl;
-        private UUID tenantId;
-        private boolean active = true;
-        private long createdAt;
-        private long lastUpdatedAt;
+        private final BotType botType;
+        private final String token;
+        private final String username;
+        private final String webhookUrl;
+        private final UUID tenantId;
+        private final boolean active;
+        private final long createdAt;
+        private final long lastUpdatedAt;
 
-        public BotConfig() {
-            // Default constructor for Jackson
-            this.createdAt = System.currentTimeMillis();
-            this.lastUpdatedAt = System.currentTimeMillis();
+        public BotConfig(BotType botType, String token, String username, String webhookUrl, UUID tenantId) {
+            this(botType, token, username, webhookUrl, tenantId, true,
+                    System.currentTimeMillis(), System.currentTimeMillis());
         }
 
-        public BotConfig(BotType botType, String token, String username, String webhookUrl, UUID tenantId) {
+        @JsonCreator
+        public BotConfig(@JsonProperty("botType") BotType botType,
+                         @JsonProperty("token") String token,
+                         @JsonProperty("username") String username,
+                         @JsonProperty("webhookUrl") String webhookUrl,
+                         @JsonProperty("tenantId") UUID tenantId,
+                         @JsonProperty("active") Boolean active,
+                         @JsonProperty("createdAt") long createdAt,
+                         @JsonProperty("lastUpdatedAt") long lastUpdatedAt) {
             this.botType = botType;
             this.token = token;
             this.username = username;
             this.webhookUrl = webhookUrl;
             this.tenantId = tenantId;
-            this.createdAt = System.currentTimeMillis();
-            this.lastUpdatedAt = System.currentTimeMillis();
+            this.active = active == null || active;
+            this.createdAt = createdAt;
+            this.lastUpdatedAt = lastUpdatedAt;
+        }
+
+        /**
+         * Copy of this configuration with a different active status
+         *
+         * @param active Active status
+         * @return New configuration
+         */
+        public BotConfig withActive(boolean active) {
+            return new BotConfig(botType, token, username, webhookUrl, tenantId, active,
+                    createdAt, System.currentTimeMillis());
         }
     }
 }
\ No newline at end of file
@@ -4,22 +4,17 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.RestTemplate;
 import ua.vbielskyi.bmf.core.telegram.BotManager;
+import ua.vbielskyi.bmf.core.telegram.service.TelegramApiClient;
 
 @Slf4j
 public abstract class DefaultBotManager implements BotManager {
 
-    private static final String TELEGRAM_API_URL = "https://api.telegram.org/bot";
     private final Map<String, BotInfo> registeredBots = new ConcurrentHashMap<>();
-    private final RestTemplate restTemplate;
+    private final TelegramApiClient telegramApiClient;
 
-    public DefaultBotManager(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public DefaultBotManager(TelegramApiClient telegramApiClient) {
+        this.telegramApiClient = telegramApiClient;
     }
 
     @Override
@@ -95,17 +90,7 @@ public abstract class DefaultBotManager implements BotManager {
 
     protected boolean setWebhook(String token, String webhookUrl) {
         try {
-            String url = TELEGRAM_API_URL + token + "/setWebhook";
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Content-Type", "application/json");
-
-            String requestBody = "{\"url\":\"" + webhookUrl + "\"}";
-            HttpEntity<String> entity = new HttpEntity<>(requestBody, headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    url, HttpMethod.POST, entity, String.class);
-
-            return response.getStatusCode().is2xxSuccessful();
+            return telegramApiClient.call(token, "setWebhook", Map.of("url", webhookUrl)).asBoolean();
         } catch (Exception e) {
             log.error("Error setting webhook", e);
             return false;
@@ -114,9 +99,7 @@ public abstract class DefaultBotManager implements BotManager {
 
     protected boolean deleteWebhook(String token) {
         try {
-            String url = TELEGRAM_API_URL + token + "/deleteWebhook";
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            return response.getStatusCode().is2xxSuccessful();
+            return telegramApiClient.call(token, "deleteWebhook", Map.of()).asBoolean();
         } catch (Exception e) {
             log.error("Error deleting webhook", e);
             return false;
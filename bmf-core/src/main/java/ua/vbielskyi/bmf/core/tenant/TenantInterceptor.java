@@ -7,8 +7,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import ua.vbielskyi.bmf.common.context.TenantContext;
-import ua.vbielskyi.bmf.core.entity.tenant.TenantEntity;
-import ua.vbielskyi.bmf.core.repository.tenant.TenantRepository;
 
 import java.io.IOException;
 import java.util.Optional;
@@ -25,10 +23,10 @@ public class TenantInterceptor implements HandlerInterceptor {
     private static final String TENANT_HEADER = "X-Tenant-ID";
     private static final String AUTHORIZATION_HEADER = "Authorization";
 
-    private final TenantRepository tenantRepository;
+    private final TenantStatusCache tenantStatusCache;
 
-    public TenantInterceptor(TenantRepository tenantRepository) {
-        this.tenantRepository = tenantRepository;
+    public TenantInterceptor(TenantStatusCache tenantStatusCache) {
+        this.tenantStatusCache = tenantStatusCache;
     }
 
     @Override
@@ -56,15 +54,15 @@ public class TenantInterceptor implements HandlerInterceptor {
             UUID uuid = UUID.fromString(tenantId);
 
             // Verify tenant exists and is active
-            Optional<TenantEntity> tenant = tenantRepository.findById(uuid);
-            if (tenant.isEmpty()) {
+            Optional<Boolean> active = tenantStatusCache.getActive(uuid);
+            if (active.isEmpty()) {
                 log.warn("Tenant not found: {}", uuid);
                 response.setStatus(HttpStatus.NOT_FOUND.value());
                 response.getWriter().write("Tenant not found");
                 return false;
             }
 
-            if (!tenant.get().getActive()) {
+            if (!active.get()) {
                 log.warn("Tenant is inactive: {}", uuid);
                 response.setStatus(HttpStatus.FORBIDDEN.value());
                 response.getWriter().write("Tenant is inactive");
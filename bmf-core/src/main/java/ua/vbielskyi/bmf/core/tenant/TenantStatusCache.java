@@ -0,0 +1,67 @@
+package ua.vbielskyi.bmf.core.tenant;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ua.vbielskyi.bmf.core.cache.CacheService;
+import ua.vbielskyi.bmf.core.repository.tenant.TenantRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached tenant existence and active flag, used to validate tenant requests.
+ * Unknown tenant IDs are cached as negative results so that repeated requests
+ * for deleted or made-up tenants do not reach the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantStatusCache {
+
+    private static final String TENANT_ACTIVE_KEY_PREFIX = "tenant:active:";
+
+    private final CacheService cacheService;
+    private final TenantRepository tenantRepository;
+
+    @Value("${bmf.tenant.status-cache.expiration-seconds:60}")
+    private long expirationSeconds;
+
+    @Value("${bmf.tenant.status-cache.negative-expiration-seconds:30}")
+    private long negativeExpirationSeconds;
+
+    /**
+     * Get the active flag of a tenant
+     *
+     * @param tenantId Tenant ID
+     * @return Optional containing the active flag, empty if the tenant does not exist
+     */
+    public Optional<Boolean> getActive(UUID tenantId) {
+        return cacheService.getOrElseComputeOptional(TENANT_ACTIVE_KEY_PREFIX + tenantId, Boolean.class,
+                () -> tenantRepository.findById(tenantId).map(tenant -> Boolean.TRUE.equals(tenant.getActive())),
+                expirationSeconds, negativeExpirationSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Drop the cached status after a tenant was created, activated or deactivated.
+     * Inside a transaction this happens once it commits; evicting earlier would let a
+     * concurrent request cache the old status again for the full expiration.
+     *
+     * @param tenantId Tenant ID
+     */
+    public void evict(UUID tenantId) {
+        String key = TENANT_ACTIVE_KEY_PREFIX + tenantId;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheService.remove(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheService.remove(key);
+            }
+        });
+    }
+}
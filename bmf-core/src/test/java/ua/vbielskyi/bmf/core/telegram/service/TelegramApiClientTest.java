@@ -0,0 +1,140 @@
+package ua.vbielskyi.bmf.core.telegram.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import ua.vbielskyi.bmf.core.concurrent.ExecutorFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against an embedded HTTP server standing in for the Bot API
+ */
+class TelegramApiClientTest {
+
+    private static final String TOKEN = "123:test";
+    private static final String SENT_MESSAGE = """
+            {"ok":true,"result":{"message_id":42,"date":1700000000,"chat":{"id":7,"type":"private"},
+            "photo":[{"file_id":"small","file_unique_id":"s","width":90,"height":90},
+            {"file_id":"large","file_unique_id":"l","width":800,"height":800}]}}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer server;
+    private TelegramApiClient client;
+
+    private volatile int responseStatus;
+    private volatile String responseBody;
+    private volatile String requestPath;
+    private volatile String requestContentType;
+    private volatile byte[] requestBody;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        client = new TelegramApiClient(objectMapper, new ExecutorFactory());
+        ReflectionTestUtils.setField(client, "baseUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(client, "requestTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(client, "uploadTimeoutMs", 5000L);
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void sendsMethodAsJson() throws Exception {
+        respond(200, SENT_MESSAGE);
+
+        Message sent = client.execute(TOKEN, SendMessage.builder().chatId(7L).text("Hello").build());
+
+        assertEquals(42, sent.getMessageId());
+        assertEquals("/bot" + TOKEN + "/" + SendMessage.PATH, requestPath);
+        assertEquals("application/json", requestContentType);
+        JsonNode body = objectMapper.readTree(requestBody);
+        assertEquals("7", body.get("chat_id").asText());
+        assertEquals("Hello", body.get("text").asText());
+        assertTrue(body.path("reply_markup").isMissingNode());
+    }
+
+    @Test
+    void uploadsPhotoAsMultipart() throws Exception {
+        respond(200, SENT_MESSAGE);
+        byte[] image = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+
+        Message sent = client.execute(TOKEN, SendPhoto.builder()
+                .chatId(7L)
+                .caption("Roses")
+                .photo(new InputFile(new ByteArrayInputStream(image), "roses.jpg"))
+                .build());
+
+        assertEquals("large", sent.getPhoto().get(1).getFileId());
+        assertEquals("/bot" + TOKEN + "/" + SendPhoto.PATH, requestPath);
+        assertTrue(requestContentType.startsWith("multipart/form-data; boundary="));
+        String boundary = requestContentType.substring(requestContentType.indexOf('=') + 1);
+        String body = new String(requestBody, StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("Content-Disposition: form-data; name=\"chat_id\"\r\n\r\n7\r\n"));
+        assertTrue(body.contains("Content-Disposition: form-data; name=\"caption\"\r\n\r\nRoses\r\n"));
+        assertTrue(body.contains("name=\"photo\"; filename=\"roses.jpg\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n"
+                + new String(image, StandardCharsets.ISO_8859_1) + "\r\n"));
+        assertTrue(body.endsWith("--" + boundary + "--\r\n"));
+    }
+
+    @Test
+    void surfacesRetryAfterOfTooManyRequests() {
+        respond(429, """
+                {"ok":false,"error_code":429,"description":"Too Many Requests: retry after 7",
+                "parameters":{"retry_after":7}}""");
+
+        TelegramApiRequestException e = assertThrows(TelegramApiRequestException.class,
+                () -> client.execute(TOKEN, SendMessage.builder().chatId(7L).text("Hello").build()));
+
+        assertEquals(429, e.getErrorCode());
+        assertEquals(7, e.getParameters().getRetryAfter());
+    }
+
+    private void respond(int status, String body) {
+        responseStatus = status;
+        responseBody = body;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestPath = exchange.getRequestURI().getPath();
+        requestContentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        requestBody = exchange.getRequestBody().readAllBytes();
+
+        byte[] response = responseBody.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(responseStatus, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
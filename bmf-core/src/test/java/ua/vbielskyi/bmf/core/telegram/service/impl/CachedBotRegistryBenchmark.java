@@ -0,0 +1,187 @@
+package ua.vbielskyi.bmf.core.telegram.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import ua.vbielskyi.bmf.core.telegram.handler.BotHandler;
+import ua.vbielskyi.bmf.core.telegram.model.BotMessage;
+import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
+import ua.vbielskyi.bmf.core.telegram.model.BotType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compares resolving the handler of an update the way the registry used to, reading
+ * the config as a JSON string, deserializing it and scanning every handler's
+ * {@code canHandle}, with the snapshot and dispatch table lookup of {@link CachedBotRegistry}.
+ * The old lookup also made a Redis round trip per update, which is left out here,
+ * so its figures are a lower bound.
+ * Not a test: run {@code main} from the IDE or with the test runtime classpath, e.g.
+ * {@code java -cp ... ua.vbielskyi.bmf.core.telegram.service.impl.CachedBotRegistryBenchmark}.
+ */
+public class CachedBotRegistryBenchmark {
+
+    private static final int TENANTS = 1_000;
+    private static final int[] HANDLER_COUNTS = {3, 12, 48, 192};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int LOOKUPS_PER_ROUND = 200_000;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Keeps the JIT from dropping lookups whose results are unused
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        List<UUID> tenants = new ArrayList<>(TENANTS);
+        for (int i = 0; i < TENANTS; i++) {
+            tenants.add(UUID.randomUUID());
+        }
+
+        System.out.printf("%-10s %15s %15s%n", "handlers", "json+scan ns/op", "snapshot ns/op");
+        for (int handlerCount : HANDLER_COUNTS) {
+            List<BotHandler> handlers = handlers(handlerCount);
+            LegacyLookup legacy = new LegacyLookup(handlers, tenants);
+            CachedBotRegistry registry = registry(handlers, tenants);
+
+            double legacyNanos = measure(tenants, legacy::findHandler);
+            double snapshotNanos = measure(tenants, registry::findHandler);
+            System.out.printf("%-10d %15.1f %15.1f%n", handlerCount, legacyNanos, snapshotNanos);
+        }
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    /**
+     * One default handler per bot type, the rest are overrides for tenants that are not looked up,
+     * like the planned tenant bot variants
+     */
+    private static List<BotHandler> handlers(int count) {
+        List<BotHandler> handlers = new ArrayList<>(count);
+        for (int i = 0; i < count - BotType.values().length; i++) {
+            handlers.add(new StubHandler(BotType.TENANT, UUID.randomUUID()));
+        }
+        for (BotType botType : BotType.values()) {
+            handlers.add(new StubHandler(botType, null));
+        }
+        return handlers;
+    }
+
+    private static CachedBotRegistry registry(List<BotHandler> handlers, List<UUID> tenants) throws Exception {
+        // Lookups of known bots are served from the snapshot, Redis is never touched
+        CachedBotRegistry registry = new CachedBotRegistry(null, null, OBJECT_MAPPER);
+        for (BotHandler handler : handlers) {
+            StubHandler stub = (StubHandler) handler;
+            if (stub.tenantId == null) {
+                registry.registerHandler(stub);
+            } else {
+                registry.registerHandler(stub, stub.tenantId);
+            }
+        }
+        for (UUID tenantId : tenants) {
+            registry.onConfigChange(OBJECT_MAPPER.writeValueAsString(new CachedBotRegistry.ConfigChange(
+                    BotType.TENANT, tenantId, config(tenantId))));
+        }
+        return registry;
+    }
+
+    private static double measure(List<UUID> tenants, Lookup lookup) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(tenants, lookup);
+        }
+        long total = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            total += run(tenants, lookup);
+        }
+        return (double) total / ((long) MEASURED_ROUNDS * LOOKUPS_PER_ROUND);
+    }
+
+    private static long run(List<UUID> tenants, Lookup lookup) {
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS_PER_ROUND; i++) {
+            BotHandler handler = lookup.findHandler(BotType.TENANT, tenants.get(i % TENANTS));
+            sink += System.identityHashCode(handler);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static CachedBotRegistry.BotConfig config(UUID tenantId) {
+        return new CachedBotRegistry.BotConfig(BotType.TENANT, "1000:AA" + tenantId.toString().replace("-", ""),
+                "shop_bot", "https://example.com/webhook/" + tenantId, tenantId);
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        BotHandler findHandler(BotType botType, UUID tenantId);
+    }
+
+    /**
+     * The registry's lookup before the snapshot and dispatch table, minus the Redis call
+     */
+    private static final class LegacyLookup {
+        private final List<BotHandler> handlers;
+        private final Map<String, String> cache = new HashMap<>();
+
+        LegacyLookup(List<BotHandler> handlers, List<UUID> tenants) throws Exception {
+            this.handlers = handlers;
+            for (UUID tenantId : tenants) {
+                cache.put(key(BotType.TENANT, tenantId), OBJECT_MAPPER.writeValueAsString(config(tenantId)));
+            }
+        }
+
+        BotHandler findHandler(BotType botType, UUID tenantId) {
+            CachedBotRegistry.BotConfig config;
+            try {
+                config = OBJECT_MAPPER.readValue(cache.get(key(botType, tenantId)), CachedBotRegistry.BotConfig.class);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (!config.isActive()) {
+                return null;
+            }
+            for (BotHandler handler : handlers) {
+                if (handler.canHandle(botType, tenantId)) {
+                    return handler;
+                }
+            }
+            return null;
+        }
+
+        private static String key(BotType botType, UUID tenantId) {
+            return "bmf:bot:config:" + botType + ":" + tenantId;
+        }
+    }
+
+    private static final class StubHandler implements BotHandler {
+        private final BotType botType;
+        private final UUID tenantId;
+
+        StubHandler(BotType botType, UUID tenantId) {
+            this.botType = botType;
+            this.tenantId = tenantId;
+        }
+
+        @Override
+        public BotApiMethod<?> handleUpdate(Update update, UUID tenantId) {
+            return null;
+        }
+
+        @Override
+        public BotResponse handleMessage(BotMessage message) {
+            return null;
+        }
+
+        @Override
+        public boolean canHandle(BotType botType, UUID tenantId) {
+            return this.botType == botType && (this.tenantId == null || this.tenantId.equals(tenantId));
+        }
+
+        @Override
+        public BotType getBotType() {
+            return botType;
+        }
+    }
+}
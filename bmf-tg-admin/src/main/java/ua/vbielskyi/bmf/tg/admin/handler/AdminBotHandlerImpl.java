@@ -12,6 +12,7 @@ import ua.vbielskyi.bmf.core.telegram.handler.impl.AbstractBotHandler;
 import ua.vbielskyi.bmf.core.telegram.model.BotMessage;
 import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
+import ua.vbielskyi.bmf.core.telegram.service.UserRateLimiter;
 import ua.vbielskyi.bmf.tg.admin.service.AdminSessionService;
 
 import java.util.List;
@@ -32,8 +33,9 @@ public class AdminBotHandlerImpl extends AbstractBotHandler {
                                AdminSessionService sessionService,
                                List<CommandHandler> commandHandlers,
                                List<CallbackQueryHandler> callbackHandlers,
-                               List<WebAppDataHandler> webAppHandlers) {
-        super(commandHandlers, callbackHandlers, webAppHandlers);
+                               List<WebAppDataHandler> webAppHandlers,
+                               UserRateLimiter rateLimiter) {
+        super(commandHandlers, callbackHandlers, webAppHandlers, rateLimiter);
         this.botRegistry = botRegistry;
         this.sessionService = sessionService;
     }
@@ -24,8 +24,7 @@ public class LanguageCallbackHandler implements CallbackQueryHandler {
 
     @Override
     public BotResponse handle(BotMessage message) {
-        String callbackData = message.getCallbackData();
-        String languageCode = callbackData.substring(5); // Remove "lang_" prefix
+        String languageCode = message.getCallback().getPayload();
 
         UserSession session = sessionService.getOrCreateSession(message.getUserId());
 
@@ -30,9 +30,7 @@ public class ShopDetailsCallbackHandler implements CallbackQueryHandler {
 
     @Override
     public BotResponse handle(BotMessage message) {
-        String callbackData = message.getCallbackData();
-        String shopIdStr = callbackData.substring(5); // Remove "shop_" prefix
-        UUID shopId = UUID.fromString(shopIdStr);
+        UUID shopId = message.getCallback().payloadAsUuid();
 
         // Get shop details
         TenantEntity shop = tenantService.getShopById(shopId);
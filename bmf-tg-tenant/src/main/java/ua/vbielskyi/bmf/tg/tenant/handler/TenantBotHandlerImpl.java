@@ -20,6 +20,7 @@ import ua.vbielskyi.bmf.core.telegram.handler.impl.AbstractBotHandler;
 import ua.vbielskyi.bmf.core.telegram.model.BotMessage;
 import ua.vbielskyi.bmf.core.telegram.model.BotResponse;
 import ua.vbielskyi.bmf.core.telegram.model.BotType;
+import ua.vbielskyi.bmf.core.telegram.service.UserRateLimiter;
 import ua.vbielskyi.bmf.core.telegram.service.impl.CachedBotRegistry;
 import ua.vbielskyi.bmf.tg.tenant.service.CustomerSessionService;
 import ua.vbielskyi.bmf.tg.tenant.service.CustomerSessionService.CustomerSession;
@@ -52,8 +53,9 @@ public class TenantBotHandlerImpl extends AbstractBotHandler {
                                 TenantRepository tenantRepository,
                                 List<CommandHandler> commandHandlers,
                                 List<CallbackQueryHandler> callbackHandlers,
-                                List<WebAppDataHandler> webAppHandlers) {
-        super(commandHandlers, callbackHandlers, webAppHandlers);
+                                List<WebAppDataHandler> webAppHandlers,
+                                UserRateLimiter rateLimiter) {
+        super(commandHandlers, callbackHandlers, webAppHandlers, rateLimiter);
         this.botRegistry = botRegistry;
         this.cachedBotRegistry = cachedBotRegistry;
         this.sessionService = sessionService;